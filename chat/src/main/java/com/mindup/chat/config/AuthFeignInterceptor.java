@@ -9,6 +9,8 @@ import org.springframework.web.context.request.RequestAttributes;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
+// Only the token is forwarded: calls to core go through the gateway, which drops any identity headers
+// it did not write and signs new ones from the verified token
 @Component
 public class AuthFeignInterceptor implements RequestInterceptor {
 
@@ -0,0 +1,23 @@
+package com.mindup.chat.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+// Caller identity taken from the gateway's signed headers (see GatewayIdentityFilter)
+public record AuthenticatedUser(String userId, String role, String email) {
+
+    static final String REQUEST_ATTRIBUTE = AuthenticatedUser.class.getName();
+
+    // Identity of the current request, or null when the gateway headers were absent or not trusted
+    public static AuthenticatedUser current() {
+        HttpServletRequest request = currentRequest();
+        return request == null ? null : (AuthenticatedUser) request.getAttribute(REQUEST_ATTRIBUTE);
+    }
+
+    private static HttpServletRequest currentRequest() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes instanceof ServletRequestAttributes servletAttributes ? servletAttributes.getRequest() : null;
+    }
+}
@@ -0,0 +1,98 @@
+package com.mindup.chat.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Base64;
+
+// Trusts the identity headers written by the gateway after it verified the JWT. A valid HMAC
+// signature and a recent timestamp put an AuthenticatedUser on the request; otherwise nothing is set.
+@Component
+public class GatewayIdentityFilter extends OncePerRequestFilter {
+
+    static final String USER_ID = "X-Auth-User-Id";
+    static final String ROLE = "X-Auth-User-Role";
+    static final String EMAIL = "X-Auth-User-Email";
+    static final String TIMESTAMP = "X-Auth-Timestamp";
+    static final String SIGNATURE = "X-Auth-Signature";
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec signingKey;
+    private final long maxAgeMillis;
+    // Mac instances are not thread-safe
+    private final ThreadLocal<Mac> mac;
+
+    public GatewayIdentityFilter(@Value("${identity.secret}") String secret,
+                                 @Value("${identity.max-age}") Duration maxAge) {
+        this.signingKey = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.maxAgeMillis = maxAge.toMillis();
+        this.mac = ThreadLocal.withInitial(this::newMac);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        AuthenticatedUser user = readIdentity(request);
+        if (user != null) {
+            request.setAttribute(AuthenticatedUser.REQUEST_ATTRIBUTE, user);
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private AuthenticatedUser readIdentity(HttpServletRequest request) {
+        String userId = request.getHeader(USER_ID);
+        String role = request.getHeader(ROLE);
+        String email = request.getHeader(EMAIL);
+        String timestamp = request.getHeader(TIMESTAMP);
+        String signature = request.getHeader(SIGNATURE);
+        if (userId == null || role == null || email == null || timestamp == null || signature == null) {
+            return null;
+        }
+
+        long issuedAt;
+        try {
+            issuedAt = Long.parseLong(timestamp);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (Math.abs(System.currentTimeMillis() - issuedAt) > maxAgeMillis) {
+            return null;
+        }
+
+        String payload = String.join("\n", userId, role, email, timestamp);
+        byte[] expected = mac.get().doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        byte[] actual;
+        try {
+            actual = Base64.getUrlDecoder().decode(signature);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (!MessageDigest.isEqual(expected, actual) || userId.isEmpty()) {
+            return null;
+        }
+        return new AuthenticatedUser(userId, role, email);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac instance = Mac.getInstance(ALGORITHM);
+            instance.init(signingKey);
+            return instance;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
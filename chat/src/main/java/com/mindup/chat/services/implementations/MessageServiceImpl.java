@@ -14,6 +14,7 @@ import com.mindup.chat.mappers.TemporalChatMapper;
 import com.mindup.chat.repositories.AvailablePsychologistsRepository;
 import com.mindup.chat.repositories.MessageRepository;
 import com.mindup.chat.repositories.TemporalChatRepository;
+import com.mindup.chat.security.AuthenticatedUser;
 import com.mindup.chat.services.MessageService;
 import com.mindup.chat.utils.Scraper;
 import jakarta.transaction.Transactional;
@@ -30,6 +31,9 @@ import java.util.Queue;
 @RequiredArgsConstructor
 public class MessageServiceImpl implements MessageService {
 
+    private static final String PATIENT_ROLE = "PATIENT";
+    private static final String PROFESSIONAL_ROLE = "PSYCHOLOGIST";
+
     private final Scraper scraper;
     private final TemporalChatRepository temporalChatRepository;
     private final Queue<String> professionalQueue = new LinkedList<>();
@@ -60,10 +64,12 @@ public class MessageServiceImpl implements MessageService {
     @Transactional
     @Override
     public TemporalChatDto requestChat(String patientId) throws IOException {
-        try {
-            coreFeignClient.findPatientByUserIdAndRole(patientId);//si no pongo el runtimeexception no lo toma
-        }catch (RuntimeException e){ //agregar exception que no es el mismo usuario el que hace la petixion con el id
-            throw new ResourceNotFoundException("No existe el id del usuario.");
+        if (!isCaller(patientId, PATIENT_ROLE)) {
+            try {
+                coreFeignClient.findPatientByUserIdAndRole(patientId);//si no pongo el runtimeexception no lo toma
+            }catch (RuntimeException e){ //agregar exception que no es el mismo usuario el que hace la petixion con el id
+                throw new ResourceNotFoundException("No existe el id del usuario.");
+            }
         }
         TemporalChat temporalChat = new TemporalChat();
         temporalChat.setPatientId(patientId);
@@ -88,10 +94,12 @@ public class MessageServiceImpl implements MessageService {
     @Transactional
     @Override
     public Boolean professionalAccepted(TemporalChatDto temporalChatDto) {
-        try {
-            coreFeignClient.findProfessionalByUserIdAndRole(temporalChatDto.professionalId());
-        }catch (RuntimeException e){ //agregar exception que no es el mismo usuario el que hace la petixion con el id
-            throw new ResourceNotFoundException("No existe el id del usuario.");
+        if (!isCaller(temporalChatDto.professionalId(), PROFESSIONAL_ROLE)) {
+            try {
+                coreFeignClient.findProfessionalByUserIdAndRole(temporalChatDto.professionalId());
+            }catch (RuntimeException e){ //agregar exception que no es el mismo usuario el que hace la petixion con el id
+                throw new ResourceNotFoundException("No existe el id del usuario.");
+            }
         }
         TemporalChat temporalChat = temporalChatRepository.findById(temporalChatDto.temporalChatId())
                 .orElseThrow(() -> new ResourceNotFoundException("Chat not found with id: " + temporalChatDto.temporalChatId()));
@@ -119,4 +127,10 @@ public class MessageServiceImpl implements MessageService {
     public List<ResponseOtherResourcesDto> getOtherResources() throws IOException {
         return scraper.getOtherResourcesList();
     }
+
+    // El gateway ya verificó al usuario que llama: si pide por sí mismo con ese rol no hace falta consultar a core
+    private static boolean isCaller(String userId, String role) {
+        AuthenticatedUser caller = AuthenticatedUser.current();
+        return caller != null && caller.userId().equals(userId) && caller.role().equals(role);
+    }
 }
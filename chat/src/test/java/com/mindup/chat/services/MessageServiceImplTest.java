@@ -0,0 +1,101 @@
+package com.mindup.chat.services;
+
+import com.mindup.chat.dtos.TemporalChatDto;
+import com.mindup.chat.entities.AvailablePsychologists;
+import com.mindup.chat.entities.TemporalChat;
+import com.mindup.chat.feign.CoreFeignClient;
+import com.mindup.chat.mappers.MessageMapper;
+import com.mindup.chat.mappers.TemporalChatMapper;
+import com.mindup.chat.repositories.AvailablePsychologistsRepository;
+import com.mindup.chat.repositories.MessageRepository;
+import com.mindup.chat.repositories.TemporalChatRepository;
+import com.mindup.chat.security.AuthenticatedUser;
+import com.mindup.chat.services.implementations.MessageServiceImpl;
+import com.mindup.chat.utils.Scraper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MessageServiceImplTest {
+
+    private static final String PATIENT_ID = "patient-1";
+    private static final String PROFESSIONAL_ID = "professional-1";
+
+    private CoreFeignClient coreFeignClient;
+    private TemporalChatRepository temporalChatRepository;
+    private AvailablePsychologistsRepository availablePsychologistsRepository;
+    private TemporalChatMapper temporalChatMapper;
+    private MessageServiceImpl messageService;
+
+    @BeforeEach
+    void setUp() {
+        coreFeignClient = mock(CoreFeignClient.class);
+        temporalChatRepository = mock(TemporalChatRepository.class);
+        availablePsychologistsRepository = mock(AvailablePsychologistsRepository.class);
+        temporalChatMapper = mock(TemporalChatMapper.class);
+        messageService = new MessageServiceImpl(mock(Scraper.class), temporalChatRepository,
+                availablePsychologistsRepository, temporalChatMapper, coreFeignClient,
+                mock(MessageRepository.class), mock(MessageMapper.class));
+
+        AvailablePsychologists professional = new AvailablePsychologists();
+        professional.setProfessionalId(PROFESSIONAL_ID);
+        when(availablePsychologistsRepository.findAll()).thenReturn(List.of(professional));
+        when(temporalChatRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(temporalChatRepository.findById("chat-1")).thenReturn(Optional.of(new TemporalChat()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void patientAskingForItselfIsNotCheckedAgainstCore() throws Exception {
+        callAs(PATIENT_ID, "PATIENT");
+
+        messageService.requestChat(PATIENT_ID);
+
+        verify(coreFeignClient, never()).findPatientByUserIdAndRole(any());
+    }
+
+    @Test
+    void otherCallersAreStillCheckedAgainstCore() throws Exception {
+        callAs("someone-else", "PATIENT");
+        messageService.requestChat(PATIENT_ID);
+
+        RequestContextHolder.resetRequestAttributes();
+        messageService.requestChat(PATIENT_ID);
+
+        verify(coreFeignClient, times(2)).findPatientByUserIdAndRole(PATIENT_ID);
+    }
+
+    @Test
+    void professionalAcceptingAsItselfIsNotCheckedAgainstCore() {
+        callAs(PROFESSIONAL_ID, "PSYCHOLOGIST");
+
+        assertThat(messageService.professionalAccepted(new TemporalChatDto("chat-1", PROFESSIONAL_ID))).isTrue();
+
+        verify(coreFeignClient, never()).findProfessionalByUserIdAndRole(any());
+    }
+
+    // Stands in for GatewayIdentityFilter after it verified the signed headers
+    private static void callAs(String userId, String role) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute(AuthenticatedUser.class.getName(), new AuthenticatedUser(userId, role, userId + "@mindup.com"));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+}
@@ -6,10 +6,8 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 
 
 import io.github.cdimascio.dotenv.Dotenv;
-import org.springframework.cloud.openfeign.EnableFeignClients;
 
 @SpringBootApplication
-@EnableFeignClients(basePackages = "com.mindup.core.feign")
 public class CoreApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,26 @@
+package com.mindup.core.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String USER_PROFILES = "userProfiles";
+
+    // Evictions issued inside a transaction are applied after commit, so a concurrent
+    // read cannot put the pre-update profile back into the cache
+    @Bean
+    public CacheManager cacheManager(@Value("${cache.user-profiles.spec}") String userProfilesSpec) {
+        CaffeineCacheManager caffeineCacheManager = new CaffeineCacheManager(USER_PROFILES);
+        caffeineCacheManager.setCacheSpecification(userProfilesSpec);
+        caffeineCacheManager.setAllowNullValues(false);
+        return new TransactionAwareCacheManagerProxy(caffeineCacheManager);
+    }
+}
@@ -0,0 +1,10 @@
+package com.mindup.core.config;
+
+import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.context.annotation.Configuration;
+
+// Kept off CoreApplication so test slices (@DataJpaTest) do not try to build the Feign clients
+@Configuration
+@EnableFeignClients(basePackages = "com.mindup.core.feign")
+public class FeignConfig {
+}
@@ -0,0 +1,36 @@
+package com.mindup.core.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class MediaConfig {
+
+    // Bounded pool for thumbnail generation; a full queue rejects work instead of piling up decoded images
+    @Bean
+    public ThreadPoolTaskExecutor mediaExecutor(@Value("${media.thumbnail.threads}") int threads,
+                                                @Value("${media.thumbnail.queue-capacity}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("media-");
+        executor.initialize();
+        return executor;
+    }
+
+    // Blocking DNS lookups of ProfileMediaVerifier, kept off the common ForkJoin pool
+    @Bean
+    public ThreadPoolTaskExecutor mediaVerificationExecutor(@Value("${media.verification.resolver-threads}") int threads,
+                                                            @Value("${media.verification.queue-capacity}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("media-verification-");
+        executor.initialize();
+        return executor;
+    }
+}
@@ -1,22 +1,33 @@
 package com.mindup.core.controllers;
 
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Set;
 
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.mindup.core.dtos.Appointment.RequestAppointmentsByDayDto;
+import com.mindup.core.dtos.Appointment.RequestBatchAppointmentDto;
 import com.mindup.core.dtos.Appointment.RequestCreateAppointmentDto;
+import com.mindup.core.dtos.Appointment.RequestCreateRecurringAppointmentDto;
 import com.mindup.core.dtos.Appointment.RequestUpdateAppointmentDto;
 import com.mindup.core.dtos.Appointment.ResponseAppointmentDateDto;
 import com.mindup.core.dtos.Appointment.ResponseAppointmentDto;
+import com.mindup.core.dtos.Appointment.ResponseAppointmentPageDto;
+import com.mindup.core.dtos.Appointment.ResponseAvailabilityDto;
+import com.mindup.core.dtos.Appointment.ResponseBatchAppointmentItemDto;
 import com.mindup.core.dtos.Appointment.ResponseCreateAppointmentDto;
 import com.mindup.core.dtos.Appointment.ResponseDeleteAppointmentDto;
 import com.mindup.core.dtos.Appointment.ResponsePatientsDto;
 import com.mindup.core.dtos.Appointment.ResponseReactivateAppointmentDto;
+import com.mindup.core.dtos.Appointment.ResponseRecurringOccurrenceDto;
 import com.mindup.core.services.IAppointmentService;
+import com.mindup.core.services.IAvailabilityService;
 
+import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
 import lombok.RequiredArgsConstructor;
 
@@ -33,6 +44,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 public class AppointmentController {
 
     private final IAppointmentService iAppointmentService;
+    private final IAvailabilityService iAvailabilityService;
 
     // Buscar por tipo de usuario con reservas aceptadas
     @GetMapping("patient-reserved/{id}")
@@ -69,26 +81,41 @@ public class AppointmentController {
         return ResponseEntity.ok(responseAppointmentDto);
     }
 
+    // turnos libres de 30 minutos del psicólogo entre dos fechas (inclusive)
+    @GetMapping("/psychologist/{id}/free-slots")
+    public ResponseEntity<List<ResponseAvailabilityDto>> getPsychologistFreeSlots(
+            @PathVariable String id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(iAvailabilityService.getFreeSlots(id, from, to));
+    }
+
     // psychologist puede ver sus pacientes
     @GetMapping("/psychologist-patients/{id}")
     public ResponseEntity<Set<ResponsePatientsDto>> getPsychologistPatients(@PathVariable String id) {
         return ResponseEntity.ok(iAppointmentService.getPsychologistPatients(id));
     }
 
-    // buscar por estados todos los appointmets (CANCELED, PENDING & ACCEPTED)
+    // buscar por estados todos los appointmets (CANCELED, PENDING & ACCEPTED), paginado con cursor (nextCursor)
     @GetMapping("/pending")
-    public ResponseEntity<Set<ResponseAppointmentDto>> getAppointmentPending() {
-        return ResponseEntity.ok(iAppointmentService.getAppointmentsPending());
+    public ResponseEntity<ResponseAppointmentPageDto> getAppointmentPending(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(iAppointmentService.getAppointmentsPending(cursor, size));
     }
 
     @GetMapping("/acepted")
-    public ResponseEntity<Set<ResponseAppointmentDto>> getAppointmentAcepted() {
-        return ResponseEntity.ok(iAppointmentService.getAppointmentsAccepted());
+    public ResponseEntity<ResponseAppointmentPageDto> getAppointmentAcepted(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(iAppointmentService.getAppointmentsAccepted(cursor, size));
     }
 
     @GetMapping("/canceled")
-    public ResponseEntity<Set<ResponseAppointmentDto>> getAppointmentCanceled() {
-        return ResponseEntity.ok(iAppointmentService.getAppointmetsCanceled());
+    public ResponseEntity<ResponseAppointmentPageDto> getAppointmentCanceled(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(iAppointmentService.getAppointmetsCanceled(cursor, size));
     }
 
     @PostMapping("/{id}/confirm")
@@ -103,6 +130,13 @@ public class AppointmentController {
         return ResponseEntity.ok(responseAppointmentDto);
     }
 
+    // confirmar, cancelar o reprogramar varias citas en una sola llamada, con resultado por cita
+    @PostMapping("/batch")
+    public ResponseEntity<List<ResponseBatchAppointmentItemDto>> batchUpdateAppointments(
+            @Valid @RequestBody RequestBatchAppointmentDto requestBatchAppointmentDto) {
+        return ResponseEntity.ok(iAppointmentService.batchUpdate(requestBatchAppointmentDto));
+    }
+
     // metodos para interactuar con la entidad
     @PostMapping("/create")
     public ResponseEntity<ResponseCreateAppointmentDto> createAppointment(
@@ -111,6 +145,13 @@ public class AppointmentController {
         return ResponseEntity.ok(responseAppointmentDto);
     }
 
+    // crear una serie de citas (semanal o quincenal) validando todos los turnos de una vez
+    @PostMapping("/create-recurring")
+    public ResponseEntity<List<ResponseRecurringOccurrenceDto>> createRecurringAppointments(
+            @RequestBody RequestCreateRecurringAppointmentDto requestCreateRecurringAppointmentDto) {
+        return ResponseEntity.ok(iAppointmentService.addRecurring(requestCreateRecurringAppointmentDto));
+    }
+
     @PostMapping("/reschedule")
     public ResponseEntity<ResponseAppointmentDto> updateAppointment(
             @RequestBody RequestUpdateAppointmentDto requestUpdateAppointmentDto) {
@@ -0,0 +1,56 @@
+package com.mindup.core.controllers;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.mindup.core.services.IMediaService;
+import com.mindup.core.services.IMediaService.StoredMediaFile;
+
+import lombok.RequiredArgsConstructor;
+
+// Serves content-addressed media. The hash in the URL identifies the bytes, so responses carry a
+// strong ETag and can be cached indefinitely; If-None-Match requests are answered with 304.
+@RestController
+@RequestMapping("/api/core/media")
+@RequiredArgsConstructor
+public class MediaController {
+
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+    private static final CacheControl SHORT_LIVED = CacheControl.maxAge(60, TimeUnit.SECONDS).cachePublic();
+
+    private final IMediaService mediaService;
+
+    @GetMapping("/{hash}")
+    public ResponseEntity<Resource> getOriginal(@PathVariable String hash) {
+        return mediaService.findOriginal(hash)
+                .map(original -> serve(original, hash, IMMUTABLE))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{hash}/thumbnail/{size}")
+    public ResponseEntity<Resource> getThumbnail(@PathVariable String hash, @PathVariable int size) {
+        return mediaService.findThumbnail(hash, size)
+                .map(thumbnail -> serve(thumbnail, hash + "-" + size, IMMUTABLE))
+                // Thumbnail not generated yet: serve the original briefly so the URL upgrades itself later
+                .or(() -> mediaService.findOriginal(hash)
+                        .map(original -> serve(original, hash, SHORT_LIVED)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    private static ResponseEntity<Resource> serve(StoredMediaFile file, String etag, CacheControl cacheControl) {
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .contentType(MediaType.parseMediaType(file.contentType()))
+                .body(new FileSystemResource(file.path()));
+    }
+}
@@ -12,11 +12,14 @@ import com.mindup.core.utils.UserValidationUtil;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
 import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.ErrorResponse;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
 import java.util.*;
 import org.springframework.http.HttpStatus;
@@ -27,7 +30,6 @@ import org.springframework.http.HttpStatus;
 public class UserController {
 
     private final UserService userService;
-    private final EmailVerificationService emailVerificationService;
     private final UserRepository userRepository;
     private final PatientService patientService;
     private final JwtService jwtService;
@@ -54,25 +56,14 @@ public class UserController {
 
     @PostMapping("/login")
     public ResponseEntity<ResponseLoginDto> loginUser(@RequestBody @Valid UserLoginDTO loginDTO) {
-        ResponseLoginDto responseLoginDto = userService.authenticateUser(loginDTO.getEmail(), loginDTO.getPassword());
-
-        if (responseLoginDto != null) {
-            Optional<User> userOptional = userRepository.findByEmail(loginDTO.getEmail());
-            if (userOptional.isPresent()) {
-                User user = userOptional.get();
-                EmailVerification emailVerification = emailVerificationService.findByUser(user);
-
-                if (emailVerification != null && emailVerification.isVerified()) {
-                    return ResponseEntity.ok(responseLoginDto);
-                } else {
-                    return ResponseEntity.status(403).body(new ResponseLoginDto(null, null, null, null, null, "Account not verified. Please verify your email first."));
-                }
-            } else {
-                return ResponseEntity.status(404).body(new ResponseLoginDto(null, null, null, null, null, "User not found."));
-            }
-        } else {
-            return ResponseEntity.status(401).body(new ResponseLoginDto(null, null, null, null, null, "Invalid credentials."));
-        }
+        LoginResultDto result = userService.authenticateUser(loginDTO.getEmail(), loginDTO.getPassword());
+
+        return switch (result.status()) {
+            case SUCCESS -> ResponseEntity.ok(result.response());
+            case NOT_VERIFIED -> ResponseEntity.status(403).body(new ResponseLoginDto(null, null, null, null, null, "Account not verified. Please verify your email first."));
+            case USER_NOT_FOUND -> ResponseEntity.status(404).body(new ResponseLoginDto(null, null, null, null, null, "User not found."));
+            case INVALID_CREDENTIALS -> ResponseEntity.status(401).body(new ResponseLoginDto(null, null, null, null, null, "Invalid credentials."));
+        };
     }
 
     @GetMapping("/user/profile")
@@ -111,6 +102,7 @@ public class UserController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    // The gateway revokes the token's jti before forwarding this request
     @PostMapping("/user/logout")
     public ResponseEntity<String> logoutUser(HttpServletRequest request) {
         return ResponseEntity.ok("User logged out successfully.");
@@ -139,6 +131,15 @@ public class UserController {
         return ResponseEntity.ok("Profile image updated successfully.");
     }
 
+    @PostMapping(value = "/user/{userId}/profile-image/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ResponseProfileImageUploadDto> uploadProfileImage(
+            @PathVariable String userId,
+            @RequestParam("file") MultipartFile file,
+            HttpServletRequest request) {
+        userValidationUtil.validateUserId(request, userId, null);
+        return ResponseEntity.ok(userService.uploadProfileImage(userId, file));
+    }
+
     @DeleteMapping("/user/{userId}/profile-image/delete")
     public ResponseEntity<String> deleteProfileImage(
             @PathVariable String userId,
@@ -177,6 +178,16 @@ public class UserController {
         return ResponseEntity.ok(userProfile);
     }
 
+    @PostMapping("/user/profiles:batch")
+    public ResponseEntity<ResponseUserProfileBatchDto> getUserProfilesByIds(
+            @RequestBody @Valid RequestUserProfileBatchDto batchDto,
+            HttpServletRequest request) {
+        String token = request.getHeader("Authorization").substring(7);
+        String currentUserId = jwtService.extractUserId(token);
+        String currentUserRole = jwtService.extractRole(token);
+        return ResponseEntity.ok(userService.findUserProfilesByIds(batchDto.userIds(), currentUserId, currentUserRole));
+    }
+
     @PutMapping("/user/{userId}/profile")
     public ResponseEntity<String> updateUserProfile(
             @PathVariable String userId,
@@ -232,6 +243,8 @@ public class UserController {
     @PostMapping("/search-preference-psychologists")
     public ResponseEntity<?> searchPsychologists(
             @RequestBody PatientPreferencesDTO preferencesDTO,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
             HttpServletRequest request) {
         String token = request.getHeader("Authorization").substring(7);
         String currentUserRole = jwtService.extractRole(token);
@@ -239,7 +252,7 @@ public class UserController {
             throw new SecurityException("Access is denied for this role.");
         }
         patientService.validatePreferences(preferencesDTO);
-        List<User> psychologists = patientService.searchPsychologists(preferencesDTO);
+        List<User> psychologists = patientService.searchPsychologists(preferencesDTO, PageRequest.of(page, size));
         if (psychologists.isEmpty()) {
             Map<String, String> response = new HashMap<>();
             response.put("message", "No psychologists were found with the requested preferences");
@@ -248,6 +261,53 @@ public class UserController {
         return ResponseEntity.ok(psychologists);
     }
 
+    @PostMapping("/search-soonest-psychologists")
+    public ResponseEntity<?> searchPsychologistsBySoonestSlot(
+            @RequestBody PatientPreferencesDTO preferencesDTO,
+            @RequestParam(defaultValue = "10") int limit,
+            HttpServletRequest request) {
+        String token = request.getHeader("Authorization").substring(7);
+        String currentUserRole = jwtService.extractRole(token);
+        if (!"PATIENT".equals(currentUserRole)) {
+            throw new SecurityException("Access is denied for this role.");
+        }
+        patientService.validatePreferences(preferencesDTO);
+        List<ResponsePsychologistAvailabilityDto> psychologists =
+                patientService.searchPsychologistsBySoonestSlot(preferencesDTO, limit);
+        if (psychologists.isEmpty()) {
+            Map<String, String> response = new HashMap<>();
+            response.put("message", "No psychologists with free slots were found with the requested preferences");
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+        return ResponseEntity.ok(psychologists);
+    }
+
+    @PostMapping("/discover-psychologists")
+    public ResponseEntity<ResponsePsychologistPageDto> discoverPsychologists(
+            @RequestBody @Valid PsychologistSearchDTO searchDTO,
+            HttpServletRequest request) {
+        String token = request.getHeader("Authorization").substring(7);
+        String currentUserRole = jwtService.extractRole(token);
+        if (!"PATIENT".equals(currentUserRole)) {
+            throw new SecurityException("Access is denied for this role.");
+        }
+        return ResponseEntity.ok(patientService.discoverPsychologists(searchDTO));
+    }
+
+    @GetMapping("/search-psychologists")
+    public ResponseEntity<ResponsePsychologistTextSearchPageDto> searchPsychologistsByText(
+            @RequestParam("q") String query,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            HttpServletRequest request) {
+        String token = request.getHeader("Authorization").substring(7);
+        String currentUserRole = jwtService.extractRole(token);
+        if (!"PATIENT".equals(currentUserRole)) {
+            throw new SecurityException("Access is denied for this role.");
+        }
+        return ResponseEntity.ok(patientService.searchPsychologistsByText(query, cursor, size));
+    }
+
     @PostMapping("/view-psychologists")
     public ResponseEntity<?> viewPsychologists(HttpServletRequest request) {
         String token = request.getHeader("Authorization").substring(7);
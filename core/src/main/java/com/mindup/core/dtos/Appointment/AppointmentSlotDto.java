@@ -0,0 +1,20 @@
+package com.mindup.core.dtos.Appointment;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+
+// Start time of an active appointment, ordered by (date, id) so equal start times never collide
+public record AppointmentSlotDto(
+    String id,
+    LocalDateTime date
+) implements Comparable<AppointmentSlotDto> {
+
+    private static final Comparator<AppointmentSlotDto> ORDER = Comparator
+            .comparing(AppointmentSlotDto::date)
+            .thenComparing(AppointmentSlotDto::id);
+
+    @Override
+    public int compareTo(AppointmentSlotDto other) {
+        return ORDER.compare(this, other);
+    }
+}
@@ -8,5 +8,7 @@ public record RequestAppointmentsByDayDto(
     @NotNull
     String psychologistId,
     @NotNull
-    LocalDate date
+    LocalDate date,
+    // Optional, inclusive: when present the whole [date, endDate] range is returned (e.g. a weekly view)
+    LocalDate endDate
 ) { }
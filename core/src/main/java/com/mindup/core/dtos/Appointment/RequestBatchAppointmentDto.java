@@ -0,0 +1,14 @@
+package com.mindup.core.dtos.Appointment;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+public record RequestBatchAppointmentDto(
+    @NotEmpty(message = "At least one appointment is required")
+    @Size(max = 100, message = "A batch cannot contain more than 100 appointments")
+    List<@Valid @NotNull(message = "Batch items cannot be null") RequestBatchAppointmentItemDto> items
+) { }
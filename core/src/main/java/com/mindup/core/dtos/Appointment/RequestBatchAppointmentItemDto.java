@@ -0,0 +1,19 @@
+package com.mindup.core.dtos.Appointment;
+
+import java.time.LocalDateTime;
+
+import com.mindup.core.enums.AppointmentBatchAction;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Builder;
+
+@Builder
+public record RequestBatchAppointmentItemDto(
+    @NotBlank(message = "El id de la cita es obligatorio")
+    String id,
+    @NotNull(message = "The action is required")
+    AppointmentBatchAction action,
+    // Only used by RESCHEDULE
+    LocalDateTime date
+) { }
@@ -0,0 +1,31 @@
+package com.mindup.core.dtos.Appointment;
+
+import java.time.LocalDateTime;
+
+import com.mindup.core.enums.RecurrenceFrequency;
+
+import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Builder;
+
+@Builder
+public record RequestCreateRecurringAppointmentDto(
+    @NotNull(message = "El id de paciente es obligatorio")
+    String patientId,
+    @NotNull(message = "El id de psycologo es obligatorio")
+    String psychologistId,
+
+    @NotNull(message = "The date of the first Appointment is required")
+    @Future(message = "The date of the Appointmest must be on future")
+    LocalDateTime date,
+
+    @NotNull(message = "The frequency is required")
+    RecurrenceFrequency frequency,
+
+    @NotNull(message = "The number of occurrences is required")
+    @Min(1)
+    @Max(52)
+    Integer occurrences
+) { }
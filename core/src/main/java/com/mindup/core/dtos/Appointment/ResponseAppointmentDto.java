@@ -4,6 +4,7 @@ import java.time.LocalDateTime;
 
 import com.mindup.core.dtos.User.UserDTO;
 import com.mindup.core.enums.AppointmentStatus;
+import com.mindup.core.enums.Role;
 
 import lombok.Builder;
 
@@ -14,4 +15,24 @@ public record ResponseAppointmentDto(
     UserDTO psychologist,
     LocalDateTime date,
     AppointmentStatus status
-) { }
+) {
+
+    // Used by the JPQL constructor expressions in IAppointmentRepository
+    public ResponseAppointmentDto(String id, LocalDateTime date, AppointmentStatus status,
+                                  String patientId, String patientName, String patientEmail, Role patientRole,
+                                  String patientPreferences, String patientChosenPsychologist,
+                                  String patientProfile, Boolean patientAvailability,
+                                  String psychologistId, String psychologistName, String psychologistEmail,
+                                  Role psychologistRole, String psychologistPreferences,
+                                  String psychologistChosenPsychologist, String psychologistProfile,
+                                  Boolean psychologistAvailability) {
+        this(id,
+                new UserDTO(patientId, patientName, patientEmail, patientRole, patientPreferences,
+                        patientChosenPsychologist, patientProfile, patientAvailability),
+                new UserDTO(psychologistId, psychologistName, psychologistEmail, psychologistRole,
+                        psychologistPreferences, psychologistChosenPsychologist, psychologistProfile,
+                        psychologistAvailability),
+                date,
+                status);
+    }
+}
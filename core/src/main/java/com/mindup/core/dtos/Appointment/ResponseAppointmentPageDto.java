@@ -0,0 +1,12 @@
+package com.mindup.core.dtos.Appointment;
+
+import java.util.List;
+
+import lombok.Builder;
+
+@Builder
+public record ResponseAppointmentPageDto(
+    List<ResponseAppointmentDto> content,
+    int size,
+    String nextCursor
+) { }
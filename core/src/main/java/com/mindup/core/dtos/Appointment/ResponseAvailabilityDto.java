@@ -0,0 +1,13 @@
+package com.mindup.core.dtos.Appointment;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import lombok.Builder;
+
+@Builder
+public record ResponseAvailabilityDto(
+    LocalDate date,
+    List<LocalTime> freeSlots
+) { }
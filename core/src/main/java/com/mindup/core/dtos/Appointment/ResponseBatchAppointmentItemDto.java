@@ -0,0 +1,18 @@
+package com.mindup.core.dtos.Appointment;
+
+import java.time.LocalDateTime;
+
+import com.mindup.core.enums.AppointmentBatchAction;
+import com.mindup.core.enums.AppointmentStatus;
+
+import lombok.Builder;
+
+@Builder
+public record ResponseBatchAppointmentItemDto(
+    String id,
+    AppointmentBatchAction action,
+    boolean success,
+    AppointmentStatus status,
+    LocalDateTime date,
+    String message
+) { }
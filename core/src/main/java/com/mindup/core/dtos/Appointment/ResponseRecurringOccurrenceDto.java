@@ -0,0 +1,16 @@
+package com.mindup.core.dtos.Appointment;
+
+import java.time.LocalDateTime;
+
+import com.mindup.core.enums.AppointmentStatus;
+
+import lombok.Builder;
+
+@Builder
+public record ResponseRecurringOccurrenceDto(
+    LocalDateTime date,
+    boolean created,
+    String appointmentId,
+    AppointmentStatus status,
+    String message
+) { }
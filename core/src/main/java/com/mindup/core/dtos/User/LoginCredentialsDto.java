@@ -0,0 +1,15 @@
+package com.mindup.core.dtos.User;
+
+import com.mindup.core.enums.Role;
+
+// Everything the login flow needs, read in one query (see UserRepository.findLoginCredentialsByEmail)
+public record LoginCredentialsDto(
+        String userId,
+        String email,
+        String name,
+        String image,
+        Role role,
+        String password,
+        boolean verified) {
+
+}
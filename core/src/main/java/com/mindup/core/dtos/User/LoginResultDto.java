@@ -0,0 +1,9 @@
+package com.mindup.core.dtos.User;
+
+import com.mindup.core.enums.LoginStatus;
+
+public record LoginResultDto(
+        LoginStatus status,
+        ResponseLoginDto response) {
+
+}
@@ -0,0 +1,37 @@
+package com.mindup.core.dtos.User;
+
+import com.mindup.core.enums.Gender;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+
+@Data
+public class PsychologistSearchDTO {
+
+    private Gender gender;
+
+    @Min(value = 0, message = "Minimum age cannot be negative")
+    @Max(value = 120, message = "Minimum age is too high")
+    private Integer minAge;
+
+    @Min(value = 0, message = "Maximum age cannot be negative")
+    @Max(value = 120, message = "Maximum age is too high")
+    private Integer maxAge;
+
+    // Case-insensitive prefix match
+    private String specialty;
+
+    // Case-insensitive prefix match
+    private String location;
+
+    private Boolean availability;
+
+    // name (default), specialty or location
+    private String sortBy;
+
+    private String cursor;
+
+    @Min(value = 1, message = "Page size must be at least 1")
+    @Max(value = 100, message = "Page size cannot exceed 100")
+    private Integer size;
+}
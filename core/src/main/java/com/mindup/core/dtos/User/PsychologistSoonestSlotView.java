@@ -0,0 +1,21 @@
+package com.mindup.core.dtos.User;
+
+import java.time.LocalDateTime;
+
+// Row returned by UserRepository.findPsychologistsBySoonestFreeSlot (native query projection)
+public interface PsychologistSoonestSlotView {
+
+    String getUserId();
+
+    String getName();
+
+    String getGender();
+
+    String getSpecialty();
+
+    String getLocation();
+
+    String getImage();
+
+    LocalDateTime getEarliestFreeSlot();
+}
@@ -0,0 +1,21 @@
+package com.mindup.core.dtos.User;
+
+// Row returned by UserRepository.searchPsychologistsByText (native query projection)
+public interface PsychologistTextSearchView {
+
+    String getUserId();
+
+    String getName();
+
+    String getGender();
+
+    String getSpecialty();
+
+    String getLocation();
+
+    String getImage();
+
+    Float getRank();
+
+    String getHighlight();
+}
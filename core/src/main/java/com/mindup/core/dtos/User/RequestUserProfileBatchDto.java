@@ -0,0 +1,13 @@
+package com.mindup.core.dtos.User;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+public record RequestUserProfileBatchDto(
+    @NotEmpty(message = "At least one user id is required")
+    @Size(max = 100, message = "No more than 100 user ids can be requested at once")
+    List<@NotBlank(message = "User ids cannot be blank") String> userIds
+) { }
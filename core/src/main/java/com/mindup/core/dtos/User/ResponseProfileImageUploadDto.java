@@ -0,0 +1,11 @@
+package com.mindup.core.dtos.User;
+
+import java.util.List;
+import lombok.Builder;
+
+@Builder
+public record ResponseProfileImageUploadDto(
+        String image,
+        List<String> thumbnails) {
+
+}
@@ -0,0 +1,17 @@
+package com.mindup.core.dtos.User;
+
+import com.mindup.core.enums.Gender;
+import java.time.LocalDateTime;
+import lombok.Builder;
+
+@Builder
+public record ResponsePsychologistAvailabilityDto(
+        String userId,
+        String name,
+        Gender gender,
+        String specialty,
+        String location,
+        String image,
+        LocalDateTime earliestFreeSlot) {
+
+}
@@ -0,0 +1,17 @@
+package com.mindup.core.dtos.User;
+
+import com.mindup.core.enums.Gender;
+import lombok.Builder;
+
+@Builder
+public record ResponsePsychologistDto(
+        String userId,
+        String name,
+        Gender gender,
+        int age,
+        String specialty,
+        String location,
+        String image,
+        Boolean availability) {
+
+}
@@ -0,0 +1,12 @@
+package com.mindup.core.dtos.User;
+
+import java.util.List;
+import lombok.Builder;
+
+@Builder
+public record ResponsePsychologistPageDto(
+        List<ResponsePsychologistDto> content,
+        int size,
+        String nextCursor) {
+
+}
@@ -0,0 +1,12 @@
+package com.mindup.core.dtos.User;
+
+import java.util.List;
+import lombok.Builder;
+
+@Builder
+public record ResponsePsychologistTextSearchPageDto(
+        List<PsychologistTextSearchView> content,
+        int size,
+        String nextCursor) {
+
+}
@@ -0,0 +1,14 @@
+package com.mindup.core.dtos.User;
+
+import java.util.List;
+import java.util.Map;
+import lombok.Builder;
+
+// Profiles keyed by userId; ids that do not exist or that the caller may not read are listed apart
+@Builder
+public record ResponseUserProfileBatchDto(
+        Map<String, UserProfileDTO> profiles,
+        List<String> notFound,
+        List<String> forbidden) {
+
+}
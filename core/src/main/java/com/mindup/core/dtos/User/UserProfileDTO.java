@@ -1,6 +1,7 @@
 package com.mindup.core.dtos.User;
 
 import com.mindup.core.enums.Gender;
+import com.mindup.core.enums.MediaVerificationStatus;
 import com.mindup.core.enums.Role;
 import jakarta.validation.constraints.*;
 import lombok.Data;
@@ -43,5 +44,9 @@ public class UserProfileDTO {
 
     private String image;
 
+    private MediaVerificationStatus imageStatus;
+
     private String video;
+
+    private MediaVerificationStatus videoStatus;
 }
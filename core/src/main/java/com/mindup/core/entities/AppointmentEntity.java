@@ -10,7 +10,12 @@ import java.time.LocalDateTime;
 @Getter @Setter
 @AllArgsConstructor @NoArgsConstructor
 @Builder
-@Table(schema="mindupdbschema", name = "appointments")
+@Table(schema="mindupdbschema", name = "appointments", indexes = {
+        @Index(name = "idx_appointments_patient_status_date", columnList = "patient_id, status, appointment_date"),
+        @Index(name = "idx_appointments_psychologist_status_date", columnList = "psychologist_id, status, appointment_date"),
+        @Index(name = "idx_appointments_psychologist_date", columnList = "psychologist_id, appointment_date"),
+        @Index(name = "idx_appointments_status_date_id", columnList = "status, appointment_date, id")
+})
 public class AppointmentEntity {
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
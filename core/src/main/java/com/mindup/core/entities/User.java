@@ -51,6 +51,10 @@ public class User {
     @Column
     private String image;
 
+    @Enumerated(EnumType.STRING)
+    @Column
+    private MediaVerificationStatus imageStatus;
+
     @Column
     @JsonFormat(pattern = "yyyy-MM-dd")
     private LocalDate birth;
@@ -82,6 +86,10 @@ public class User {
     @Column
     private String video;
 
+    @Enumerated(EnumType.STRING)
+    @Column
+    private MediaVerificationStatus videoStatus;
+
     public int getAge() {
         if (birth != null) {
             return Period.between(birth, LocalDate.now()).getYears();
@@ -0,0 +1,7 @@
+package com.mindup.core.enums;
+
+public enum AppointmentBatchAction {
+    CONFIRM,
+    CANCEL,
+    RESCHEDULE
+}
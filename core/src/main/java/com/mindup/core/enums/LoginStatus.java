@@ -0,0 +1,8 @@
+package com.mindup.core.enums;
+
+public enum LoginStatus {
+    SUCCESS,
+    USER_NOT_FOUND,
+    INVALID_CREDENTIALS,
+    NOT_VERIFIED
+}
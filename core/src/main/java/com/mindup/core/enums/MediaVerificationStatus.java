@@ -0,0 +1,7 @@
+package com.mindup.core.enums;
+
+public enum MediaVerificationStatus {
+    PENDING_VERIFICATION,
+    VERIFIED,
+    REJECTED
+}
@@ -0,0 +1,6 @@
+package com.mindup.core.enums;
+
+public enum ProfileMedia {
+    IMAGE,
+    VIDEO
+}
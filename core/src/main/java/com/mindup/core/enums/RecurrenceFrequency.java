@@ -0,0 +1,17 @@
+package com.mindup.core.enums;
+
+public enum RecurrenceFrequency {
+    WEEKLY(1),
+    BIWEEKLY(2);
+
+    private final int weeks;
+
+    RecurrenceFrequency(int weeks){
+        this.weeks = weeks;
+    }
+
+    public int getWeeks(){
+        return weeks;
+    }
+
+}
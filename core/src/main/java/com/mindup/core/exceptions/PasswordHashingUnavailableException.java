@@ -0,0 +1,8 @@
+package com.mindup.core.exceptions;
+
+public class PasswordHashingUnavailableException extends RuntimeException {
+
+    public PasswordHashingUnavailableException(String message) {
+        super(message);
+    }
+}
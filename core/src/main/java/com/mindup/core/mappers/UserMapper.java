@@ -3,10 +3,14 @@ import com.mindup.core.dtos.User.UserDTO;
 import com.mindup.core.dtos.User.UserProfileDTO;
 import com.mindup.core.dtos.User.UserRegisterDTO;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import com.mindup.core.entities.User;
 
 @Mapper(componentModel = "spring")
 public interface UserMapper {
+    // Media status is set by ProfileMediaVerifier, never taken from the request
+    @Mapping(target = "imageStatus", ignore = true)
+    @Mapping(target = "videoStatus", ignore = true)
     User toUser(UserRegisterDTO dto);
     UserDTO toUserDTO(User user);
     UserProfileDTO toUserProfileDTO(User user);
@@ -1,5 +1,8 @@
 package com.mindup.core.repositories;
 
+import com.mindup.core.dtos.Appointment.AppointmentSlotDto;
+import com.mindup.core.dtos.Appointment.ResponseAppointmentDateDto;
+import com.mindup.core.dtos.Appointment.ResponseAppointmentDto;
 import com.mindup.core.dtos.Appointment.ResponsePatientsDto;
 import com.mindup.core.entities.AppointmentEntity;
 import com.mindup.core.entities.User;
@@ -7,12 +10,14 @@ import com.mindup.core.enums.AppointmentStatus;
 
 import feign.Param;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -20,31 +25,105 @@ import java.util.Set;
 @Repository
 public interface IAppointmentRepository extends JpaRepository<AppointmentEntity, String> {
 
-    Set<AppointmentEntity> getAppointmentsByPatient(User patient);
+    // Flat projection of an appointment and both participants, read in one join without loading entities
+    String RESPONSE_APPOINTMENT_SELECT = "SELECT new com.mindup.core.dtos.Appointment.ResponseAppointmentDto(" +
+            "a.id, a.date, a.status, " +
+            "p.userId, p.name, p.email, p.role, p.preferences, p.chosenPsychologist, p.profile, p.availability, " +
+            "ps.userId, ps.name, ps.email, ps.role, ps.preferences, ps.chosenPsychologist, ps.profile, ps.availability) " +
+            "FROM AppointmentEntity a JOIN a.patient p JOIN a.psychologist ps ";
 
-    Set<AppointmentEntity> getAppointmentsByPsychologist(User psychologist);
+    @Query(RESPONSE_APPOINTMENT_SELECT +
+            "WHERE p.userId = :patientId")
+    Set<ResponseAppointmentDto> findResponseDtosByPatientId(@Param("patientId") String patientId);
 
-    @Query("SELECT a.patient FROM AppointmentEntity a " +
+    @Query(RESPONSE_APPOINTMENT_SELECT +
+            "WHERE ps.userId = :psychologistId")
+    Set<ResponseAppointmentDto> findResponseDtosByPsychologistId(@Param("psychologistId") String psychologistId);
+
+    @Query(RESPONSE_APPOINTMENT_SELECT +
+            "WHERE p.userId = :patientId " +
+            "AND a.status = :status " +
+            "AND a.softDelete IS NULL")
+    Set<ResponseAppointmentDto> findActiveByPatientIdAndStatus(@Param("patientId") String patientId,
+                                                               @Param("status") AppointmentStatus status);
+
+    @Query(RESPONSE_APPOINTMENT_SELECT +
+            "WHERE ps.userId = :psychologistId " +
+            "AND a.status = :status " +
+            "AND a.softDelete IS NULL")
+    Set<ResponseAppointmentDto> findActiveByPsychologistIdAndStatus(@Param("psychologistId") String psychologistId,
+                                                                    @Param("status") AppointmentStatus status);
+
+    @Query(RESPONSE_APPOINTMENT_SELECT +
+            "WHERE a.status = :status " +
+            "AND a.softDelete IS NULL " +
+            "ORDER BY a.date ASC, a.id ASC")
+    List<ResponseAppointmentDto> findFirstActiveByStatus(@Param("status") AppointmentStatus status, Limit limit);
+
+    // Keyset page: rows strictly after (date, id) in (appointment_date, id) order
+    @Query(RESPONSE_APPOINTMENT_SELECT +
+            "WHERE a.status = :status " +
+            "AND a.softDelete IS NULL " +
+            "AND (a.date > :date OR (a.date = :date AND a.id > :id)) " +
+            "ORDER BY a.date ASC, a.id ASC")
+    List<ResponseAppointmentDto> findActiveByStatusAfter(@Param("status") AppointmentStatus status,
+                                                         @Param("date") LocalDateTime date,
+                                                         @Param("id") String id,
+                                                         Limit limit);
+
+    @Query("SELECT new com.mindup.core.dtos.Appointment.AppointmentSlotDto(a.id, a.date) " +
+            "FROM AppointmentEntity a " +
             "WHERE a.psychologist.userId = :psychologistId " +
+            "AND a.status IN :statuses " +
+            "AND a.date >= :from " +
             "AND a.softDelete IS NULL")
-    Set<User> findDistinctPatientsByPsychologistId(@Param("psychologistId") String psychologistId);
+    List<AppointmentSlotDto> findActiveSlotsByPsychologistId(@Param("psychologistId") String psychologistId,
+                                                             @Param("statuses") List<AppointmentStatus> statuses,
+                                                             @Param("from") LocalDateTime from);
 
-    @Query("SELECT a FROM AppointmentEntity a " +
+    @Query("SELECT new com.mindup.core.dtos.Appointment.AppointmentSlotDto(a.id, a.date) " +
+            "FROM AppointmentEntity a " +
+            "WHERE a.psychologist.userId = :psychologistId " +
+            "AND a.status IN :statuses " +
+            "AND a.date >= :start " +
+            "AND a.date < :end " +
+            "AND a.softDelete IS NULL")
+    List<AppointmentSlotDto> findActiveSlotsByPsychologistIdAndDateRange(@Param("psychologistId") String psychologistId,
+                                                                         @Param("statuses") List<AppointmentStatus> statuses,
+                                                                         @Param("start") LocalDateTime start,
+                                                                         @Param("end") LocalDateTime end);
+
+    @Query("SELECT new com.mindup.core.dtos.Appointment.AppointmentSlotDto(a.id, a.date) " +
+            "FROM AppointmentEntity a " +
+            "WHERE a.patient.userId = :patientId " +
+            "AND a.status IN :statuses " +
+            "AND a.date >= :start " +
+            "AND a.date < :end")
+    List<AppointmentSlotDto> findSlotsByPatientIdAndDateRange(@Param("patientId") String patientId,
+                                                              @Param("statuses") List<AppointmentStatus> statuses,
+                                                              @Param("start") LocalDateTime start,
+                                                              @Param("end") LocalDateTime end);
+
+    // Which of the given patients have (or had) an appointment with the psychologist
+    @Query("SELECT DISTINCT a.patient.userId FROM AppointmentEntity a " +
+            "WHERE a.psychologist.userId = :psychologistId " +
+            "AND a.patient.userId IN :patientIds " +
+            "AND a.softDelete IS NULL")
+    Set<String> findPatientIdsByPsychologistIdAndPatientIdIn(@Param("psychologistId") String psychologistId,
+                                                           @Param("patientIds") Collection<String> patientIds);
+
+    // Patients of a psychologist with their next non-canceled appointment, resolved in a single grouped query
+    @Query("SELECT new com.mindup.core.dtos.Appointment.ResponsePatientsDto(" +
+            "p.userId, p.name, p.email, " +
+            "MIN(CASE WHEN a.date >= CURRENT_TIMESTAMP AND a.status <> :canceled THEN a.date ELSE NULL END), " +
+            "p.image) " +
+            "FROM AppointmentEntity a JOIN a.patient p " +
             "WHERE a.psychologist.userId = :psychologistId " +
-            "AND a.patient.userId = :patientId " +
-            "AND a.date >= CURRENT_TIMESTAMP " +
             "AND a.softDelete IS NULL " +
-            "AND a.status != 'CANCELLED' " +
-            "ORDER BY a.date ASC " +
-            "LIMIT 1")
-    Optional<AppointmentEntity> findNextAppointment(
+            "GROUP BY p.userId, p.name, p.email, p.image")
+    Set<ResponsePatientsDto> findPatientsWithNextAppointmentByPsychologistId(
             @Param("psychologistId") String psychologistId,
-            @Param("patientId") String patientId);
-
-    @Query("SELECT a FROM AppointmentEntity a " +
-            "WHERE DATE(a.date) = :date " +
-            "AND a.softDelete IS NULL")
-    Optional<Set<AppointmentEntity>> findAppointmentEntitiesByDay(@Param("date") LocalDate date);
+            @Param("canceled") AppointmentStatus canceled);
 
     Optional<AppointmentEntity> findByDate(LocalDate appointmentDate);
 
@@ -76,12 +155,40 @@ public interface IAppointmentRepository extends JpaRepository<AppointmentEntity,
             LocalDateTime end,
             List<AppointmentStatus> statuses);
 
+    boolean existsByPsychologistAndDateBetweenAndStatusInAndSoftDeleteIsNull(
+            User psychologist,
+            LocalDateTime start,
+            LocalDateTime end,
+            List<AppointmentStatus> statuses);
+
+    boolean existsByPsychologistAndDateBetweenAndStatusInAndSoftDeleteIsNullAndIdNot(
+            User psychologist,
+            LocalDateTime start,
+            LocalDateTime end,
+            List<AppointmentStatus> statuses,
+            String excludedId);
+
+    // Transaction-scoped Postgres advisory lock on a psychologist's schedule, shared by every core replica
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(hashtext(:psychologistId))", nativeQuery = true)
+    Integer lockPsychologistSchedule(@Param("psychologistId") String psychologistId);
+
+    // Same for a patient's schedule; the two-key form keeps patient locks apart from the psychologist ones
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(1, hashtext(:patientId))", nativeQuery = true)
+    Integer lockPatientSchedule(@Param("patientId") String patientId);
+
     long countByPatientAndDateBetweenAndStatusNot(
             User patient,
             LocalDateTime startOfDay,
             LocalDateTime endOfDay,
             AppointmentStatus status);
 
+    long countByPatientAndDateBetweenAndStatusNotAndIdNot(
+            User patient,
+            LocalDateTime startOfDay,
+            LocalDateTime endOfDay,
+            AppointmentStatus status,
+            String excludedId);
+
     boolean existsByPsychologistAndDateBetweenAndStatusInAndIdNot(
             User psychologist,
             LocalDateTime start,
@@ -89,10 +196,15 @@ public interface IAppointmentRepository extends JpaRepository<AppointmentEntity,
             List<AppointmentStatus> statuses,
             String excludedId);
 
-            @Query("SELECT a FROM AppointmentEntity a " +
-            "WHERE DATE(a.date) = :date " +
-            "AND a.psychologist.userId = :psychologistId " +
+    @Query("SELECT new com.mindup.core.dtos.Appointment.ResponseAppointmentDateDto(" +
+            "a.id, ps.userId, ps.name, p.userId, p.name, a.status, a.date) " +
+            "FROM AppointmentEntity a JOIN a.patient p JOIN a.psychologist ps " +
+            "WHERE ps.userId = :psychologistId " +
+            "AND a.date >= :start " +
+            "AND a.date < :end " +
             "AND a.softDelete IS NULL")
-     Optional<Set<AppointmentEntity>> findAppointmentEntitiesByDayAndPsychologistId(@Param("date") LocalDate date,
-                                                                                    @Param("psychologistId") String psychologistId);
+    Optional<Set<ResponseAppointmentDateDto>> findAppointmentsByPsychologistIdAndDateRange(
+            @Param("psychologistId") String psychologistId,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end);
 }
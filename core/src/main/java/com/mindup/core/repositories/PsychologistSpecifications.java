@@ -0,0 +1,96 @@
+package com.mindup.core.repositories;
+
+import com.mindup.core.entities.User;
+import com.mindup.core.enums.Gender;
+import com.mindup.core.enums.Role;
+import jakarta.persistence.criteria.Expression;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Composable filters for the psychologist searches in PatientService (discovery)
+public final class PsychologistSpecifications {
+
+    public static final List<String> SORT_FIELDS = List.of("name", "specialty", "location");
+
+    private PsychologistSpecifications() {
+    }
+
+    public static Specification<User> isPsychologist() {
+        return (root, query, cb) -> cb.equal(root.get("role"), Role.PSYCHOLOGIST);
+    }
+
+    public static Specification<User> hasGender(Gender gender) {
+        return (root, query, cb) -> cb.equal(root.get("gender"), gender);
+    }
+
+    // At least minAge years old
+    public static Specification<User> minAge(int minAge) {
+        LocalDate birthCutoff = LocalDate.now().minusYears(minAge);
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("birth"), birthCutoff);
+    }
+
+    // At most maxAge years old; users without a birth date count as age 0, like User.getAge()
+    public static Specification<User> maxAge(int maxAge) {
+        LocalDate birthCutoff = LocalDate.now().minusYears(maxAge + 1L);
+        return (root, query, cb) -> cb.or(
+                cb.isNull(root.get("birth")),
+                cb.greaterThan(root.get("birth"), birthCutoff));
+    }
+
+    public static Specification<User> specialtyStartsWith(String specialty) {
+        return startsWithIgnoreCase("specialty", specialty);
+    }
+
+    public static Specification<User> locationStartsWith(String location) {
+        return startsWithIgnoreCase("location", location);
+    }
+
+    public static Specification<User> hasAvailability(boolean availability) {
+        return (root, query, cb) -> cb.equal(root.get("availability"), availability);
+    }
+
+    // Keyset filters for the discovery order (sort field ASC, userId ASC). Postgres sorts NULLs last in ascending
+    // order, like the (field, user_id) indexes in schema.sql, so rows with a sort value are paged first and rows
+    // without one after them. Each filter is a plain range on the index, without coalesce or OR across regions.
+
+    // Rows with a sort value after (sortValue, userId); all of them when sortValue is null
+    public static Specification<User> sortValueAfter(String sortField, String sortValue, String userId) {
+        return (root, query, cb) -> {
+            Expression<String> sortPath = root.get(sortField);
+            if (sortValue == null) {
+                return cb.isNotNull(sortPath);
+            }
+            // The redundant >= bound is what lets Postgres use it as an index condition
+            return cb.and(
+                    cb.greaterThanOrEqualTo(sortPath, sortValue),
+                    cb.or(
+                            cb.greaterThan(sortPath, sortValue),
+                            cb.greaterThan(root.get("userId"), userId)));
+        };
+    }
+
+    // Rows without a sort value, after userId when it is given
+    public static Specification<User> sortValueMissingAfter(String sortField, String userId) {
+        return (root, query, cb) -> userId == null
+                ? cb.isNull(root.get(sortField))
+                : cb.and(cb.isNull(root.get(sortField)), cb.greaterThan(root.get("userId"), userId));
+    }
+
+    public static String sortValue(User user, String sortField) {
+        return switch (sortField) {
+            case "specialty" -> user.getSpecialty();
+            case "location" -> user.getLocation();
+            default -> user.getName();
+        };
+    }
+
+    private static Specification<User> startsWithIgnoreCase(String field, String prefix) {
+        String pattern = prefix.trim().toLowerCase()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_") + "%";
+        return (root, query, cb) -> cb.like(cb.lower(root.get(field)), pattern, '\\');
+    }
+}
@@ -1,24 +1,130 @@
 package com.mindup.core.repositories;
 
 import com.mindup.core.entities.User;
+import com.mindup.core.dtos.User.LoginCredentialsDto;
+import com.mindup.core.dtos.User.PsychologistSoonestSlotView;
+import com.mindup.core.dtos.User.PsychologistTextSearchView;
 import com.mindup.core.enums.*;
 import feign.Param;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.*;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, String> {
+public interface UserRepository extends JpaRepository<User, String>, JpaSpecificationExecutor<User> {
 
     Optional<User> findByEmail(String email);
 
+    // Login lookup: credentials and email verification state in a single round-trip
+    @Query("SELECT new com.mindup.core.dtos.User.LoginCredentialsDto(" +
+            "u.userId, u.email, u.name, u.image, u.role, u.password, " +
+            "CASE WHEN EXISTS (SELECT 1 FROM EmailVerification ev WHERE ev.user = u AND ev.verified = true) " +
+            "THEN true ELSE false END) " +
+            "FROM User u WHERE u.email = :email")
+    Optional<LoginCredentialsDto> findLoginCredentialsByEmail(@Param("email") String email);
+
+    // Compare-and-set so a rehash never overwrites a password changed concurrently
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :newPassword WHERE u.userId = :userId AND u.password = :currentPassword")
+    int updatePassword(@Param("userId") String userId,
+                       @Param("currentPassword") String currentPassword,
+                       @Param("newPassword") String newPassword);
+
     @Query("SELECT u FROM User u WHERE u.id = :userId AND u.role = :role")
     Optional<User> findUserByUserIdAndRole(String userId, Role role);
 
-    @Query("SELECT u FROM User u WHERE u.role = 'PSYCHOLOGIST' AND u.gender = :gender")
-    List<User> findPsychologistsByGender(@Param("gender") Gender gender);
+    boolean existsByUserIdAndRole(String userId, Role role);
+
+    @Query("SELECT u FROM User u WHERE u.role = 'PSYCHOLOGIST' AND u.gender = :gender " +
+            "ORDER BY u.birth, u.userId")
+    List<User> findPsychologistsByGender(@Param("gender") Gender gender, Pageable pageable);
+
+    // Younger than the cutoff age; users without a birth date count as age 0, like User.getAge()
+    @Query("SELECT u FROM User u WHERE u.role = 'PSYCHOLOGIST' AND u.gender = :gender " +
+            "AND (u.birth IS NULL OR u.birth > :birthCutoff) " +
+            "ORDER BY u.birth, u.userId")
+    List<User> findPsychologistsByGenderBornAfter(@Param("gender") Gender gender,
+                                                  @Param("birthCutoff") LocalDate birthCutoff,
+                                                  Pageable pageable);
+
+    @Query("SELECT u FROM User u WHERE u.role = 'PSYCHOLOGIST' AND u.gender = :gender " +
+            "AND u.birth <= :birthCutoff " +
+            "ORDER BY u.birth, u.userId")
+    List<User> findPsychologistsByGenderBornOnOrBefore(@Param("gender") Gender gender,
+                                                       @Param("birthCutoff") LocalDate birthCutoff,
+                                                       Pageable pageable);
     
     List<User> findByRole(Role role);
+
+    // Matching psychologists ranked by their first free candidate slot (slots bound as one timestamp[] in time order). A slot is
+    // free when no active appointment starts within buffer minutes of it; the lateral subquery stops at the first
+    // free slot of each psychologist, and psychologists without one are left out. Null filters are not applied.
+    @Query(value = "SELECT p.userid AS userId, p.name AS name, p.gender AS gender, p.specialty AS specialty, " +
+            "p.location AS location, p.image AS image, f.slot AS earliestFreeSlot " +
+            "FROM mindupdbschema.users p " +
+            "CROSS JOIN LATERAL (" +
+            "SELECT s.slot FROM unnest(CAST(:slots AS timestamp[])) AS s(slot) " +
+            "WHERE NOT EXISTS (SELECT 1 FROM mindupdbschema.appointments a " +
+            "WHERE a.psychologist_id = p.userid AND a.status IN (:statuses) AND a.softdelete IS NULL " +
+            "AND a.appointment_date BETWEEN s.slot - make_interval(mins => :buffer) " +
+            "AND s.slot + make_interval(mins => :buffer)) " +
+            "ORDER BY s.slot LIMIT 1) f " +
+            "WHERE p.role = 'PSYCHOLOGIST' " +
+            "AND (CAST(:gender AS varchar) IS NULL OR p.gender = CAST(:gender AS varchar)) " +
+            "AND (CAST(:bornAfter AS date) IS NULL OR p.birth IS NULL OR p.birth > CAST(:bornAfter AS date)) " +
+            "AND (CAST(:bornOnOrBefore AS date) IS NULL OR p.birth <= CAST(:bornOnOrBefore AS date)) " +
+            "ORDER BY f.slot, p.birth, p.userid " +
+            "LIMIT :limit",
+            nativeQuery = true)
+    List<PsychologistSoonestSlotView> findPsychologistsBySoonestFreeSlot(@Param("slots") LocalDateTime[] slots,
+                                                                        @Param("statuses") List<String> statuses,
+                                                                        @Param("buffer") int buffer,
+                                                                        @Param("gender") String gender,
+                                                                        @Param("bornAfter") LocalDate bornAfter,
+                                                                        @Param("bornOnOrBefore") LocalDate bornOnOrBefore,
+                                                                        @Param("limit") int limit);
+
+    // Ranked full-text search over the generated search_vector column (see schema.sql), keyset-paged on
+    // (rank DESC, userid). The inner query ranks and pages on the GIN index, ts_headline only runs for the page.
+    // highlight is HTML: information is escaped (& first) before ts_headline adds the <b> markers,
+    // so only those markers reach the client as markup
+    String TEXT_SEARCH_SELECT = "SELECT r.userid AS userId, r.name AS name, r.gender AS gender, r.specialty AS specialty, " +
+            "r.location AS location, r.image AS image, r.rank AS rank, " +
+            "ts_headline('simple', " +
+            "replace(replace(replace(replace(replace(coalesce(r.information, ''), " +
+            "'&', '&amp;'), '<', '&lt;'), '>', '&gt;'), '\"', '&quot;'), '''', '&#39;'), " +
+            "websearch_to_tsquery('simple', :query), " +
+            "'StartSel=<b>, StopSel=</b>, MaxFragments=2, MaxWords=25, MinWords=8') AS highlight " +
+            "FROM (SELECT m.* FROM (" +
+            "SELECT u.userid, u.name, u.gender, u.specialty, u.location, u.image, u.information, " +
+            "ts_rank(u.search_vector, websearch_to_tsquery('simple', :query)) AS rank " +
+            "FROM mindupdbschema.users u " +
+            "WHERE u.role = 'PSYCHOLOGIST' AND u.search_vector @@ websearch_to_tsquery('simple', :query)) m ";
+
+    String TEXT_SEARCH_PAGE = "ORDER BY m.rank DESC, m.userid " +
+            "LIMIT :limit) r " +
+            "ORDER BY r.rank DESC, r.userid";
+
+    @Query(value = TEXT_SEARCH_SELECT + TEXT_SEARCH_PAGE, nativeQuery = true)
+    List<PsychologistTextSearchView> searchPsychologistsByText(@Param("query") String query,
+                                                              @Param("limit") int limit);
+
+    // Keyset page: rows strictly after (rank, userId) in (rank DESC, userid) order
+    @Query(value = TEXT_SEARCH_SELECT +
+            "WHERE m.rank < :rank OR (m.rank = :rank AND m.userid > :userId) " +
+            TEXT_SEARCH_PAGE,
+            nativeQuery = true)
+    List<PsychologistTextSearchView> searchPsychologistsByTextAfter(@Param("query") String query,
+                                                                   @Param("rank") float rank,
+                                                                   @Param("userId") String userId,
+                                                                   @Param("limit") int limit);
 }
@@ -1,14 +1,33 @@
 package com.mindup.core.security;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Map;
 
 @Configuration
 public class AppConfig {
 
+    // New hashes are written as {id}hash with the configured algorithm. Hashes stored before the
+    // prefix was introduced are plain BCrypt and still match; upgradeEncoding flags them for rehash.
     @Bean
-    BCryptPasswordEncoder passwordEncoder(){
-        return new BCryptPasswordEncoder();
+    PasswordEncoder passwordEncoder(@Value("${security.password.encoder}") String encoderId,
+                                    @Value("${security.password.bcrypt.strength}") int bcryptStrength,
+                                    @Value("${security.password.argon2.memory}") int argon2Memory,
+                                    @Value("${security.password.argon2.iterations}") int argon2Iterations,
+                                    @Value("${security.password.argon2.parallelism}") int argon2Parallelism) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+        Map<String, PasswordEncoder> encoders = Map.of(
+                "bcrypt", bcrypt,
+                "argon2", new Argon2PasswordEncoder(16, 32, argon2Parallelism, argon2Memory, argon2Iterations));
+
+        DelegatingPasswordEncoder passwordEncoder = new DelegatingPasswordEncoder(encoderId, encoders);
+        passwordEncoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return passwordEncoder;
     }
 }
@@ -2,28 +2,48 @@ package com.mindup.core.security;
 
 import com.mindup.core.exceptions.TokenExpiredException;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 import java.security.Key;
 import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Service
 public class JwtService {
 
-    @Value("${jwt.secret}")
-    private String secretKey;
-
-    @Value("${jwt.expiration}")
-    private long jwtExpiration;
+    // Parsed claims are kept on the current request so repeated extractX calls parse the token once
+    private static final String CLAIMS_ATTRIBUTE = JwtService.class.getName() + ".claims";
+
+    private final long jwtExpiration;
+    // Both are immutable and thread-safe, so they are built once instead of per sign/parse
+    private final Key signInKey;
+    private final JwtParser jwtParser;
+
+    public JwtService(@Value("${jwt.secret}") String secretKey,
+                      @Value("${jwt.expiration}") long jwtExpiration) {
+        this.jwtExpiration = jwtExpiration;
+        this.signInKey = Keys.hmacShaKeyFor(Base64.getDecoder().decode(secretKey));
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signInKey)
+                .build();
+    }
 
+    // The extractX methods prefer the identity the gateway already verified for this request
     public String extractEmail(String token) {
+        AuthenticatedUser user = AuthenticatedUser.forToken(token);
+        if (user != null) {
+            return user.email();
+        }
         return extractClaim(token, Claims::getSubject);
     }
 
@@ -42,10 +62,18 @@ public class JwtService {
     }
 
     public String extractRole(String token) {
+        AuthenticatedUser user = AuthenticatedUser.forToken(token);
+        if (user != null && !user.role().isEmpty()) {
+            return user.role();
+        }
         return extractClaim(token, claims -> claims.getOrDefault("role", "UNKNOWN").toString());
     }
 
     public String extractUserId(String token) {
+        AuthenticatedUser user = AuthenticatedUser.forToken(token);
+        if (user != null) {
+            return user.userId();
+        }
         String userId = extractClaim(token, claims -> claims.getOrDefault("userId", "").toString());
         if (userId == null || userId.isEmpty()) {
             throw new SecurityException("Invalid token: does not contain a user ID.");
@@ -53,9 +81,14 @@ public class JwtService {
         return userId;
     }
 
+    // Signature and expiry are checked once: by the gateway for this request's token, otherwise by a single parse
     public boolean isTokenValid(String token, String email) {
-        final String extractedEmail = extractEmail(token);
-        return extractedEmail.equals(email) && !isTokenExpired(token);
+        AuthenticatedUser user = AuthenticatedUser.forToken(token);
+        if (user != null) {
+            return user.email().equals(email);
+        }
+        Claims claims = extractAllClaims(token);
+        return claims.getSubject().equals(email) && claims.getExpiration().after(new Date());
     }
 
     public boolean isUserIdValid(String token, String urlUserId) {
@@ -82,26 +115,31 @@ public class JwtService {
                 .builder()
                 .setClaims(extraClaims)
                 .setSubject(email)
+                // jti lets the gateway revoke this token on logout
+                .setId(UUID.randomUUID().toString())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .signWith(signInKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private Claims extractAllClaims(String token) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return parseClaims(token);
+        }
+        ParsedToken parsed = (ParsedToken) attributes.getAttribute(CLAIMS_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (parsed != null && parsed.token().equals(token)) {
+            return parsed.claims();
+        }
+        Claims claims = parseClaims(token);
+        attributes.setAttribute(CLAIMS_ATTRIBUTE, new ParsedToken(token, claims), RequestAttributes.SCOPE_REQUEST);
+        return claims;
     }
 
-    private Claims extractAllClaims(String token) {
+    private Claims parseClaims(String token) {
         try {
-            return Jwts
-                    .parserBuilder()
-                    .setSigningKey(getSignInKey())
-                    .build()
+            return jwtParser
                     .parseClaimsJws(token)
                     .getBody();
         } catch (io.jsonwebtoken.ExpiredJwtException e) {
@@ -109,7 +147,6 @@ public class JwtService {
         }
     }
 
-    private Key getSignInKey() {
-        return Keys.hmacShaKeyFor(Base64.getDecoder().decode(secretKey));
+    private record ParsedToken(String token, Claims claims) {
     }
 }
@@ -0,0 +1,69 @@
+package com.mindup.core.services;
+
+import com.mindup.core.repositories.IAppointmentRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+// Serializes booking changes per psychologist and per patient: a striped local lock keeps threads of this
+// node from piling up on the database, and transaction-scoped advisory locks cover the other core replicas.
+// The psychologist lock is always taken before the patient lock, so two bookings cannot deadlock.
+// The local lock is held until the transaction has committed, so the next booking sees the new row.
+@Service
+@RequiredArgsConstructor
+public class AppointmentBookingLock {
+
+    private static final int STRIPES = 64;
+
+    private final IAppointmentRepository appointmentRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ReentrantLock[] stripes = createStripes();
+
+    public <T> T executeForParticipants(String psychologistId, String patientId, Supplier<T> booking) {
+        return executeForParticipants(List.of(psychologistId), List.of(patientId), booking);
+    }
+
+    // Several schedules at once (batch updates): locks are taken in a fixed order, local stripes by index
+    // and advisory locks by id, psychologists before patients
+    public <T> T executeForParticipants(Collection<String> psychologistIds, Collection<String> patientIds,
+                                        Supplier<T> booking) {
+        List<String> orderedPsychologistIds = psychologistIds.stream().distinct().sorted().toList();
+        List<String> orderedPatientIds = patientIds.stream().distinct().sorted().toList();
+        List<ReentrantLock> locks = orderedPsychologistIds.stream()
+                .map(psychologistId -> Math.floorMod(psychologistId.hashCode(), STRIPES))
+                .distinct()
+                .sorted()
+                .map(stripe -> stripes[stripe])
+                .toList();
+
+        int locked = 0;
+        try {
+            for (ReentrantLock lock : locks) {
+                lock.lock();
+                locked++;
+            }
+            return transactionTemplate.execute(status -> {
+                orderedPsychologistIds.forEach(appointmentRepository::lockPsychologistSchedule);
+                orderedPatientIds.forEach(appointmentRepository::lockPatientSchedule);
+                return booking.get();
+            });
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                locks.get(i).unlock();
+            }
+        }
+    }
+
+    private static ReentrantLock[] createStripes() {
+        ReentrantLock[] locks = new ReentrantLock[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+}
@@ -0,0 +1,10 @@
+package com.mindup.core.services;
+
+import java.time.LocalDateTime;
+
+// Published by AppointmentSlotIndex whenever a psychologist's active slots change.
+public record AppointmentSlotChangedEvent(
+    String psychologistId,
+    LocalDateTime previousDate,
+    LocalDateTime date
+) { }
@@ -0,0 +1,140 @@
+package com.mindup.core.services;
+
+import com.mindup.core.dtos.Appointment.AppointmentSlotDto;
+import com.mindup.core.entities.AppointmentEntity;
+import com.mindup.core.enums.AppointmentStatus;
+import com.mindup.core.repositories.IAppointmentRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+// Sorted in-memory index of active (PENDING/ACCEPTED, not soft deleted) appointment start times per psychologist.
+// Each psychologist is loaded from the database on first use and kept up to date by AppointmentServiceImpl.
+// Bookings use it to reject a known conflict before taking AppointmentBookingLock; a slot the index sees as
+// free is still decided by the database check under the lock.
+// Changes made by other core replicas are not seen here, so entries expire (appointments.slot-index.spec)
+// to bound how stale a schedule can get.
+@Service
+public class AppointmentSlotIndex {
+
+    public static final long BUFFER_MINUTES = 29;
+    public static final List<AppointmentStatus> ACTIVE_STATUSES =
+            List.of(AppointmentStatus.PENDING, AppointmentStatus.ACCEPTED);
+
+    private static final String MIN_ID = "";
+    private static final String MAX_ID = "\uffff";
+    private static final int MAX_LOAD_ATTEMPTS = 3;
+
+    private final IAppointmentRepository appointmentRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ConcurrentMap<String, NavigableSet<AppointmentSlotDto>> slotsByPsychologist;
+    // Bumped by every refresh, so a snapshot read from the database while a change committed is not installed
+    private final ConcurrentMap<String, Long> versions = new ConcurrentHashMap<>();
+
+    public AppointmentSlotIndex(IAppointmentRepository appointmentRepository,
+                                ApplicationEventPublisher eventPublisher,
+                                @Value("${appointments.slot-index.spec}") String slotIndexSpec) {
+        this.appointmentRepository = appointmentRepository;
+        this.eventPublisher = eventPublisher;
+        this.slotsByPsychologist = Caffeine.from(slotIndexSpec)
+                .<String, NavigableSet<AppointmentSlotDto>>build()
+                .asMap();
+    }
+
+    // True if the psychologist has another active appointment starting within +/- BUFFER_MINUTES of start
+    public boolean hasConflict(String psychologistId, LocalDateTime start, String excludedAppointmentId) {
+        return hasSlotNearby(slotsFor(psychologistId), start, excludedAppointmentId);
+    }
+
+    public static boolean hasSlotNearby(NavigableSet<AppointmentSlotDto> slots, LocalDateTime start,
+                                        String excludedAppointmentId) {
+        NavigableSet<AppointmentSlotDto> nearby = slots.subSet(
+                new AppointmentSlotDto(MIN_ID, start.minusMinutes(BUFFER_MINUTES)), true,
+                new AppointmentSlotDto(MAX_ID, start.plusMinutes(BUFFER_MINUTES)), true);
+
+        return nearby.stream().anyMatch(slot -> !slot.id().equals(excludedAppointmentId));
+    }
+
+    // Active slots starting in [from, to), read from the index
+    public NavigableSet<AppointmentSlotDto> slotsBetween(String psychologistId, LocalDateTime from, LocalDateTime to) {
+        return slotsFor(psychologistId).subSet(
+                new AppointmentSlotDto(MIN_ID, from), true,
+                new AppointmentSlotDto(MIN_ID, to), false);
+    }
+
+    // Re-indexes an appointment after it changed; previousDate is its start time before the change (null if new)
+    public void refresh(AppointmentEntity appointment, LocalDateTime previousDate) {
+        String psychologistId = appointment.getPsychologist().getUserId();
+        // Bumped before looking at the set: a load in flight either sees the new version and re-reads,
+        // or has already installed its set, which is updated below
+        versions.merge(psychologistId, 1L, Long::sum);
+        NavigableSet<AppointmentSlotDto> slots = slotsByPsychologist.get(psychologistId);
+
+        // Not warmed yet: the next lookup loads the current state from the database
+        if (slots != null) {
+            if (previousDate != null) {
+                slots.remove(new AppointmentSlotDto(appointment.getId(), previousDate));
+            }
+            if (isActive(appointment)) {
+                slots.add(new AppointmentSlotDto(appointment.getId(), appointment.getDate()));
+            }
+
+            // Past slots can no longer conflict with a new booking
+            slots.headSet(new AppointmentSlotDto(MIN_ID, LocalDateTime.now().minusDays(1))).clear();
+        }
+
+        eventPublisher.publishEvent(new AppointmentSlotChangedEvent(psychologistId, previousDate, appointment.getDate()));
+    }
+
+    private NavigableSet<AppointmentSlotDto> slotsFor(String psychologistId) {
+        NavigableSet<AppointmentSlotDto> slots = slotsByPsychologist.get(psychologistId);
+        for (int attempt = 1; slots == null; attempt++) {
+            long version = versionOf(psychologistId);
+            NavigableSet<AppointmentSlotDto> loaded = new ConcurrentSkipListSet<>(
+                    appointmentRepository.findActiveSlotsByPsychologistId(
+                            psychologistId, ACTIVE_STATUSES, LocalDateTime.now().minusDays(1)));
+            slots = install(psychologistId, loaded, version);
+
+            // Schedule changing faster than it can be loaded: answer from the fresh read without caching it
+            if (slots == null && attempt == MAX_LOAD_ATTEMPTS) {
+                return loaded;
+            }
+        }
+        return slots;
+    }
+
+    // Installs a snapshot read at the given version, unless a refresh ran since. Returns the set now indexed
+    // for the psychologist, or null when the snapshot was discarded and has to be read again.
+    private NavigableSet<AppointmentSlotDto> install(String psychologistId, NavigableSet<AppointmentSlotDto> loaded,
+                                                     long version) {
+        if (versionOf(psychologistId) != version) {
+            return null;
+        }
+        NavigableSet<AppointmentSlotDto> current = slotsByPsychologist.putIfAbsent(psychologistId, loaded);
+        if (current != null) {
+            return current;
+        }
+        // A refresh that started between the check and the install may have missed the new set
+        if (versionOf(psychologistId) != version) {
+            slotsByPsychologist.remove(psychologistId, loaded);
+            return null;
+        }
+        return loaded;
+    }
+
+    private long versionOf(String psychologistId) {
+        return versions.getOrDefault(psychologistId, 0L);
+    }
+
+    public static boolean isActive(AppointmentEntity appointment) {
+        return appointment.getSoftDelete() == null && ACTIVE_STATUSES.contains(appointment.getStatus());
+    }
+}
@@ -2,6 +2,7 @@ package com.mindup.core.services;
 
 import com.mindup.core.dtos.Appointment.*;
 
+import java.util.List;
 import java.util.Set;
 
 
@@ -14,14 +15,16 @@ public interface IAppointmentService {
     Set<ResponseAppointmentDto> getAppointmentsByPsychologist(String psychologistId);
     Set<ResponsePatientsDto> getPsychologistPatients(String id);
     Set<ResponseAppointmentDateDto> getAppointmentsByDay(RequestAppointmentsByDayDto requestAppointmentsByDayDto);
-    Set<ResponseAppointmentDto> getAppointmentsPending();
-    Set<ResponseAppointmentDto> getAppointmentsAccepted();
-    Set<ResponseAppointmentDto> getAppointmetsCanceled();
+    ResponseAppointmentPageDto getAppointmentsPending(String cursor, int size);
+    ResponseAppointmentPageDto getAppointmentsAccepted(String cursor, int size);
+    ResponseAppointmentPageDto getAppointmetsCanceled(String cursor, int size);
     
     ResponseCreateAppointmentDto add(RequestCreateAppointmentDto requestDto);
+    List<ResponseRecurringOccurrenceDto> addRecurring(RequestCreateRecurringAppointmentDto requestDto);
     ResponseAppointmentDto aceptAppointment(String id);
     ResponseAppointmentDto cancelAppointment(String id);
     ResponseAppointmentDto update(RequestUpdateAppointmentDto requestDto);
+    List<ResponseBatchAppointmentItemDto> batchUpdate(RequestBatchAppointmentDto requestDto);
 
     ResponseDeleteAppointmentDto delete(String appointmentId);
     ResponseReactivateAppointmentDto reactivateAppointment(String appointmentId);
@@ -0,0 +1,17 @@
+package com.mindup.core.services;
+
+import com.mindup.core.dtos.Appointment.ResponseAvailabilityDto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+
+public interface IAvailabilityService {
+
+    List<ResponseAvailabilityDto> getFreeSlots(String psychologistId, LocalDate from, LocalDate to);
+
+    // Future slot starts within working hours over the next horizonDays, in time order
+    List<LocalDateTime> workingSlots(int horizonDays);
+
+}
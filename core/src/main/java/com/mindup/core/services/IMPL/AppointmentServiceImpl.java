@@ -3,6 +3,7 @@ package com.mindup.core.services.IMPL;
 import com.mindup.core.dtos.Appointment.*;
 import com.mindup.core.entities.AppointmentEntity;
 import com.mindup.core.entities.User;
+import com.mindup.core.enums.AppointmentBatchAction;
 import com.mindup.core.enums.AppointmentStatus;
 import com.mindup.core.enums.Role;
 import com.mindup.core.exceptions.AppointmentConflictException;
@@ -15,29 +16,54 @@ import com.mindup.core.exceptions.UserNotFoundException;
 import com.mindup.core.mappers.AppointmentMapper;
 import com.mindup.core.repositories.IAppointmentRepository;
 import com.mindup.core.repositories.UserRepository;
+import com.mindup.core.services.AppointmentBookingLock;
+import com.mindup.core.services.AppointmentSlotIndex;
 import com.mindup.core.services.IAppointmentService;
+import com.mindup.core.services.UserProfileCache;
+import com.mindup.core.utils.AppointmentCursor;
 import com.mindup.core.validations.UserValidation;
 
 import lombok.AllArgsConstructor;
 import lombok.RequiredArgsConstructor;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class AppointmentServiceImpl implements IAppointmentService {
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int MAX_DAYS_PER_RANGE = 31;
+    private static final int MAX_BATCH_SIZE = 100;
+    private static final int MAX_RECURRING_OCCURRENCES = 52;
+
     private final IAppointmentRepository appointmentRepository;
     private final AppointmentMapper appointmentMapper;
     private final UserRepository userRepository;
     private final UserValidation userValidation;
+    private final AppointmentSlotIndex appointmentSlotIndex;
+    private final AppointmentBookingLock appointmentBookingLock;
+    private final TransactionTemplate transactionTemplate;
+    private final UserProfileCache userProfileCache;
 
     @Override
     public Set<ResponseAppointmentDto> getPatientReservedAppointments(String id) {
@@ -48,17 +74,13 @@ public class AppointmentServiceImpl implements IAppointmentService {
         if (patient.getRole() != Role.PATIENT)
             throw new IllegalArgumentException("User must be a patient");
 
-        List<AppointmentEntity> appointmentEntityList = appointmentRepository.findAll();
-        Set<AppointmentEntity> acceptedList = appointmentEntityList.stream()
-                .filter(appointmentEntity -> appointmentEntity.getStatus() == AppointmentStatus.ACCEPTED &&
-                        appointmentEntity.getPatient().getUserId() == patient.getUserId() &&
-                        appointmentEntity.getSoftDelete() == null)
-                .collect(Collectors.toSet());
+        Set<ResponseAppointmentDto> acceptedList = appointmentRepository.findActiveByPatientIdAndStatus(
+                patient.getUserId(), AppointmentStatus.ACCEPTED);
 
         if (acceptedList.isEmpty()) {
             throw new EmptyAppointmentException("User appointments not found");
         }
-        return appointmentMapper.toResponseDtoSet(acceptedList);
+        return acceptedList;
     }
 
     @Override
@@ -71,17 +93,13 @@ public class AppointmentServiceImpl implements IAppointmentService {
         if (psychologist.getRole() != Role.PSYCHOLOGIST)
             throw new RoleMismatchException("User must be a psychologist");
 
-        List<AppointmentEntity> appointmentEntityList = appointmentRepository.findAll();
-        Set<AppointmentEntity> acceptedList = appointmentEntityList.stream()
-                .filter(appointmentEntity -> appointmentEntity.getStatus() == AppointmentStatus.ACCEPTED &&
-                        appointmentEntity.getPsychologist().getUserId() == psychologist.getUserId() &&
-                        appointmentEntity.getSoftDelete() == null)
-                .collect(Collectors.toSet());
+        Set<ResponseAppointmentDto> acceptedList = appointmentRepository.findActiveByPsychologistIdAndStatus(
+                psychologist.getUserId(), AppointmentStatus.ACCEPTED);
 
         if (acceptedList.isEmpty()) {
             throw new EmptyAppointmentException("User appointments not found");
         }
-        return appointmentMapper.toResponseDtoSet(acceptedList);
+        return acceptedList;
     }
 
     @Override
@@ -94,17 +112,13 @@ public class AppointmentServiceImpl implements IAppointmentService {
         if (psychologist.getRole() != Role.PSYCHOLOGIST)
             throw new RoleMismatchException("User must be a psychologist");
 
-        List<AppointmentEntity> appointmentEntityList = appointmentRepository.findAll();
-        Set<AppointmentEntity> acceptedList = appointmentEntityList.stream()
-                .filter(appointmentEntity -> appointmentEntity.getStatus() == AppointmentStatus.PENDING &&
-                        appointmentEntity.getPsychologist().getUserId() == psychologist.getUserId() &&
-                        appointmentEntity.getSoftDelete() == null)
-                .collect(Collectors.toSet());
+        Set<ResponseAppointmentDto> acceptedList = appointmentRepository.findActiveByPsychologistIdAndStatus(
+                psychologist.getUserId(), AppointmentStatus.PENDING);
 
         if (acceptedList.isEmpty()) {
             throw new EmptyAppointmentException("User appointments not found");
         }
-        return appointmentMapper.toResponseDtoSet(acceptedList);
+        return acceptedList;
     }
 
     // #######################################################################/*
@@ -117,12 +131,12 @@ public class AppointmentServiceImpl implements IAppointmentService {
         if (patient.getRole() != Role.PATIENT)
             throw new RoleMismatchException("Bad argument, user isn't a patient");
 
-        Set<AppointmentEntity> appointments = appointmentRepository.getAppointmentsByPatient(patient);
+        Set<ResponseAppointmentDto> appointments = appointmentRepository.findResponseDtosByPatientId(patient.getUserId());
 
         if (appointments.isEmpty()) {
             throw new EmptyAppointmentException("User appointments not found");
         }
-        return appointmentMapper.toResponseDtoSet(appointments);
+        return appointments;
     }
 
     @Override
@@ -134,12 +148,12 @@ public class AppointmentServiceImpl implements IAppointmentService {
         if (psychologist.getRole() != Role.PSYCHOLOGIST)
             throw new RoleMismatchException("Bad argument, user isn't a psychologist");
 
-        Set<AppointmentEntity> appointments = appointmentRepository.getAppointmentsByPsychologist(psychologist);
+        Set<ResponseAppointmentDto> appointments = appointmentRepository.findResponseDtosByPsychologistId(psychologist.getUserId());
 
         if (appointments.isEmpty()) {
             throw new EmptyAppointmentException("User appointments not found");
         }
-        return appointmentMapper.toResponseDtoSet(appointments);
+        return appointments;
     }
 
     // psychologist puede ver sus pacientes
@@ -159,26 +173,9 @@ public class AppointmentServiceImpl implements IAppointmentService {
             throw new IllegalArgumentException("User with ID " + psychologistId + " is not a psychologist");
         }
     
-        // Obtener pacientes únicos asociados al psicólogo
-        Set<User> patients = appointmentRepository.findDistinctPatientsByPsychologistId(psychologist.getUserId());
-    
-        // Mapear pacientes a DTOs incluyendo la próxima cita
-        return patients.stream()
-                .map(patient -> {
-                    LocalDateTime nextAppointment = appointmentRepository
-                        .findNextAppointment(psychologistId, patient.getUserId())
-                        .map(AppointmentEntity::getDate)
-                        .orElse(null);
-    
-                    return ResponsePatientsDto.builder()
-                            .userId(patient.getUserId())
-                            .name(patient.getName())
-                            .email(patient.getEmail())
-                            .nextAppointment(nextAppointment)
-                            .image(patient.getImage())
-                            .build();
-                })
-                .collect(Collectors.toSet());
+        // Obtener pacientes únicos con su próxima cita en una sola consulta
+        return appointmentRepository.findPatientsWithNextAppointmentByPsychologistId(
+                psychologist.getUserId(), AppointmentStatus.CANCELED);
     }
 
     @Override
@@ -188,128 +185,211 @@ public class AppointmentServiceImpl implements IAppointmentService {
         userRepository.findById(requestAppointmentsByDayDto.psychologistId())
                 .orElseThrow(() -> new ResourceNotFoundException("Not found any psychologist with that id"));
     
-        // Obtener las citas del día para el psicólogo especificado
-        Set<AppointmentEntity> appointments = appointmentRepository.findAppointmentEntitiesByDayAndPsychologistId(
-                        requestAppointmentsByDayDto.date(),
-                        requestAppointmentsByDayDto.psychologistId())
+        // Rango [inicio del primer día, inicio del día siguiente al último) para aprovechar el índice por fecha
+        LocalDate firstDay = requestAppointmentsByDayDto.date();
+        LocalDate lastDay = requestAppointmentsByDayDto.endDate() != null
+                ? requestAppointmentsByDayDto.endDate()
+                : firstDay;
+
+        if (lastDay.isBefore(firstDay)) {
+            throw new IllegalArgumentException("End date must not be before the start date");
+        }
+        if (ChronoUnit.DAYS.between(firstDay, lastDay) >= MAX_DAYS_PER_RANGE) {
+            throw new IllegalArgumentException("Date range cannot exceed " + MAX_DAYS_PER_RANGE + " days");
+        }
+
+        // Obtener las citas del rango para el psicólogo especificado
+        Set<ResponseAppointmentDateDto> appointments = appointmentRepository.findAppointmentsByPsychologistIdAndDateRange(
+                        requestAppointmentsByDayDto.psychologistId(),
+                        firstDay.atStartOfDay(),
+                        lastDay.plusDays(1).atStartOfDay())
                 .orElseThrow(() -> new ResourceNotFoundException("Not found any appointment for the psychologist in that day"));
     
         if (appointments.isEmpty()) {
             throw new ResourceNotFoundException("Not found any appointment for the psychologist in that day");
         }
-    
-        // Mapear las citas a ResponseAppointmentDateDto
-        return appointments.stream()
-                .map(appointment -> new ResponseAppointmentDateDto(
-                        appointment.getId(),
-                        appointment.getPsychologist().getUserId(),
-                        appointment.getPsychologist().getName(),
-                        appointment.getPatient().getUserId(),
-                        appointment.getPatient().getName(),
-                        appointment.getStatus(),
-                        appointment.getDate()
-                ))
-                .collect(Collectors.toSet());
+        return appointments;
     }
     
     
 
     @Override
-    public Set<ResponseAppointmentDto> getAppointmentsPending() {
-        List<AppointmentEntity> appointmentEntityList = appointmentRepository.findAll();
-        Set<AppointmentEntity> pendingList = appointmentEntityList.stream()
-                .filter(appointmentEntity -> appointmentEntity.getStatus() == AppointmentStatus.PENDING &&
-                        appointmentEntity.getSoftDelete() == null)
-                .collect(Collectors.toSet());
+    @Transactional(readOnly = true)
+    public ResponseAppointmentPageDto getAppointmentsPending(String cursor, int size) {
+        return getAppointmentsPageByStatus(AppointmentStatus.PENDING, cursor, size);
+    }
 
-        if (pendingList.isEmpty()) {
-            throw new EmptyAppointmentsByStateException("This appointment status doesnt have any appointment");
-        }
-        return appointmentMapper.toResponseDtoSet(pendingList);
+    @Override
+    @Transactional(readOnly = true)
+    public ResponseAppointmentPageDto getAppointmentsAccepted(String cursor, int size) {
+        return getAppointmentsPageByStatus(AppointmentStatus.ACCEPTED, cursor, size);
     }
 
     @Override
-    public Set<ResponseAppointmentDto> getAppointmentsAccepted() {
-        List<AppointmentEntity> appointmentEntityList = appointmentRepository.findAll();
-        Set<AppointmentEntity> acceptedList = appointmentEntityList.stream()
-                .filter(appointmentEntity -> appointmentEntity.getStatus() == AppointmentStatus.ACCEPTED &&
-                        appointmentEntity.getSoftDelete() == null)
-                .collect(Collectors.toSet());
+    @Transactional(readOnly = true)
+    public ResponseAppointmentPageDto getAppointmetsCanceled(String cursor, int size) {
+        return getAppointmentsPageByStatus(AppointmentStatus.CANCELED, cursor, size);
+    }
 
-        if (acceptedList.isEmpty()) {
-            throw new EmptyAppointmentsByStateException("This appointment status doesnt have any appointment");
+    // Keyset pagination over (date, id): one extra row is fetched to know if there is a next page
+    private ResponseAppointmentPageDto getAppointmentsPageByStatus(AppointmentStatus status, String cursor, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
         }
-        return appointmentMapper.toResponseDtoSet(acceptedList);
-    }
 
-    @Override
-    public Set<ResponseAppointmentDto> getAppointmetsCanceled() {
-        List<AppointmentEntity> appointmentEntityList = appointmentRepository.findAll();
-        Set<AppointmentEntity> canceledList = appointmentEntityList.stream()
-                .filter(appointmentEntity -> appointmentEntity.getStatus() == AppointmentStatus.CANCELED &&
-                        appointmentEntity.getSoftDelete() == null)
-                .collect(Collectors.toSet());
+        Limit limit = Limit.of(size + 1);
+        List<ResponseAppointmentDto> appointments;
+        if (cursor == null || cursor.isBlank()) {
+            appointments = appointmentRepository.findFirstActiveByStatus(status, limit);
+            if (appointments.isEmpty()) {
+                throw new EmptyAppointmentsByStateException("This appointment status doesnt have any appointment");
+            }
+        } else {
+            AppointmentCursor position = AppointmentCursor.decode(cursor);
+            appointments = appointmentRepository.findActiveByStatusAfter(status, position.date(), position.id(), limit);
+        }
 
-        if (canceledList.isEmpty()) {
-            throw new EmptyAppointmentsByStateException("This appointment status doesnt have any appointment");
+        String nextCursor = null;
+        if (appointments.size() > size) {
+            appointments = appointments.subList(0, size);
+            ResponseAppointmentDto last = appointments.get(size - 1);
+            nextCursor = new AppointmentCursor(last.date(), last.id()).encode();
         }
-        return appointmentMapper.toResponseDtoSet(canceledList);
+
+        return ResponseAppointmentPageDto.builder()
+                .content(appointments)
+                .size(appointments.size())
+                .nextCursor(nextCursor)
+                .build();
     }
 
     @Override
     public ResponseCreateAppointmentDto add(RequestCreateAppointmentDto requestDto) {
-        // Checking if patient and psychologist exists
-        User patient = userRepository.findById(requestDto.patientId())
-                .orElseThrow(() -> new UserNotFoundException("Patient not found"));
-        User psychologist = userRepository.findById(requestDto.psychologistId())
-                .orElseThrow(() -> new UserNotFoundException("Psychologist not found"));
+        requireParticipantIds(requestDto.patientId(), requestDto.psychologistId());
+        LocalDateTime appointmentStart = requestDto.date();
+        rejectIndexedConflict(requestDto.psychologistId(), appointmentStart, null);
 
-        // Checking Roles
-        if (patient.getRole() != Role.PATIENT)
-            throw new RoleMismatchException("User must be a patient to schedule an appointment");
-        if (psychologist.getRole() != Role.PSYCHOLOGIST)
-            throw new RoleMismatchException("User must be a psychologist to schedule an appointment");
+        // Checks and insert run serialized per psychologist and patient, the database is the final authority
+        AppointmentEntity savedAppointment = appointmentBookingLock.executeForParticipants(
+                requestDto.psychologistId(), requestDto.patientId(), () -> {
+            User patient = findPatient(requestDto.patientId());
+            User psychologist = findPsychologist(requestDto.psychologistId());
+            checkSlotIsFree(patient, psychologist, appointmentStart, null);
 
-        // Check patient's appointments on the same day
-        LocalDateTime startOfDay = requestDto.date().toLocalDate().atStartOfDay();
-        LocalDateTime endOfDay = startOfDay.plusDays(1);
+            AppointmentEntity appointment = new AppointmentEntity();
 
-        long patientAppointmentsCount = appointmentRepository.countByPatientAndDateBetweenAndStatusNot(
-                patient, startOfDay, endOfDay, AppointmentStatus.CANCELED);
+            appointment.setDate(appointmentStart);
+            appointment.setPatient(patient);
+            appointment.setPsychologist(psychologist);
+            appointment.setStatus(AppointmentStatus.PENDING);
 
-        if (patientAppointmentsCount > 0) {
-            throw new AppointmentConflictException("Patient already has an appointment on this day");
-        }
+            patient.setChosenPsychologist(psychologist.getUserId());
 
-        // Check for overlapping
-        LocalDateTime appointmentStart = requestDto.date();
-        LocalDateTime bufferBefore = appointmentStart.minusMinutes(29);
-        LocalDateTime bufferAfter = appointmentStart.plusMinutes(29);
+            userRepository.save(patient);
+            userProfileCache.evict(patient.getUserId());
+            return appointmentRepository.save(appointment);
+        });
+        appointmentSlotIndex.refresh(savedAppointment, null);
 
-        // Check if psychologist has any conflicting appointments
-        boolean hasConflictingAppointments = appointmentRepository.existsByPsychologistAndDateBetweenAndStatusIn(
-                psychologist,
-                bufferBefore,
-                bufferAfter,
-                List.of(AppointmentStatus.PENDING, AppointmentStatus.ACCEPTED));
+        return appointmentMapper.appointmentToResponseCreateAppointmentDto(savedAppointment);
+    }
 
-        if (hasConflictingAppointments) {
-            throw new AppointmentConflictException("Psychologist has conflicting appointments nearby");
+    // Generates every occurrence of the series, checks them all against one range query per participant
+    // and inserts the free ones in a single batched saveAll. Conflicting occurrences are reported, not fatal.
+    @Override
+    public List<ResponseRecurringOccurrenceDto> addRecurring(RequestCreateRecurringAppointmentDto requestDto) {
+        if (requestDto.occurrences() == null || requestDto.occurrences() < 1
+                || requestDto.occurrences() > MAX_RECURRING_OCCURRENCES) {
+            throw new IllegalArgumentException("Occurrences must be between 1 and " + MAX_RECURRING_OCCURRENCES);
+        }
+        if (requestDto.frequency() == null) {
+            throw new IllegalArgumentException("The frequency is required");
+        }
+        if (requestDto.date() == null || !requestDto.date().isAfter(LocalDateTime.now())) {
+            throw new IllegalArgumentException("The date of the Appointmest must be on future");
         }
 
-        AppointmentEntity appointment = new AppointmentEntity();
-
-        appointment.setDate(appointmentStart);
-        appointment.setPatient(patient);
-        appointment.setPsychologist(psychologist);
-        appointment.setStatus(AppointmentStatus.PENDING);
-
-        patient.setChosenPsychologist(psychologist.getUserId());
+        requireParticipantIds(requestDto.patientId(), requestDto.psychologistId());
 
-        User savedUser = userRepository.save(patient);
-        AppointmentEntity savedAppointment = appointmentRepository.save(appointment);
+        List<LocalDateTime> dates = new ArrayList<>();
+        for (int i = 0; i < requestDto.occurrences(); i++) {
+            dates.add(requestDto.date().plusWeeks((long) i * requestDto.frequency().getWeeks()));
+        }
+        LocalDateTime first = dates.get(0);
+        LocalDateTime last = dates.get(dates.size() - 1);
+
+        ResponseRecurringOccurrenceDto[] results = new ResponseRecurringOccurrenceDto[dates.size()];
+
+        List<AppointmentEntity> savedAppointments = appointmentBookingLock.executeForParticipants(
+                requestDto.psychologistId(), requestDto.patientId(), () -> {
+            User patient = findPatient(requestDto.patientId());
+            User psychologist = findPsychologist(requestDto.psychologistId());
+            NavigableSet<AppointmentSlotDto> psychologistSlots = new TreeSet<>(
+                    appointmentRepository.findActiveSlotsByPsychologistIdAndDateRange(
+                            psychologist.getUserId(),
+                            AppointmentSlotIndex.ACTIVE_STATUSES,
+                            first.minusMinutes(AppointmentSlotIndex.BUFFER_MINUTES),
+                            last.plusMinutes(AppointmentSlotIndex.BUFFER_MINUTES + 1)));
+            Set<LocalDate> patientBusyDays = appointmentRepository.findSlotsByPatientIdAndDateRange(
+                            patient.getUserId(),
+                            AppointmentSlotIndex.ACTIVE_STATUSES,
+                            first.toLocalDate().atStartOfDay(),
+                            last.toLocalDate().plusDays(1).atStartOfDay())
+                    .stream()
+                    .map(slot -> slot.date().toLocalDate())
+                    .collect(Collectors.toSet());
+
+            List<AppointmentEntity> appointments = new ArrayList<>();
+            for (int i = 0; i < dates.size(); i++) {
+                LocalDateTime date = dates.get(i);
+                boolean psychologistBusy = AppointmentSlotIndex.hasSlotNearby(psychologistSlots, date, null);
+
+                if (patientBusyDays.contains(date.toLocalDate())) {
+                    results[i] = ResponseRecurringOccurrenceDto.builder()
+                            .date(date)
+                            .created(false)
+                            .message("Patient already has an appointment on this day")
+                            .build();
+                } else if (psychologistBusy) {
+                    results[i] = ResponseRecurringOccurrenceDto.builder()
+                            .date(date)
+                            .created(false)
+                            .message("Psychologist has conflicting appointments nearby")
+                            .build();
+                } else {
+                    AppointmentEntity appointment = new AppointmentEntity();
+                    appointment.setDate(date);
+                    appointment.setPatient(patient);
+                    appointment.setPsychologist(psychologist);
+                    appointment.setStatus(AppointmentStatus.PENDING);
+                    appointments.add(appointment);
+                }
+            }
+
+            if (!appointments.isEmpty()) {
+                patient.setChosenPsychologist(psychologist.getUserId());
+                userRepository.save(patient);
+                userProfileCache.evict(patient.getUserId());
+            }
+            return appointmentRepository.saveAll(appointments);
+        });
+
+        // Fill the created occurrences, in date order, into the remaining result positions
+        int saved = 0;
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                AppointmentEntity appointment = savedAppointments.get(saved++);
+                appointmentSlotIndex.refresh(appointment, null);
+                results[i] = ResponseRecurringOccurrenceDto.builder()
+                        .date(appointment.getDate())
+                        .created(true)
+                        .appointmentId(appointment.getId())
+                        .status(appointment.getStatus())
+                        .build();
+            }
+        }
 
-        return appointmentMapper.appointmentToResponseCreateAppointmentDto(savedAppointment);
+        return Arrays.asList(results);
     }
 
     @Override
@@ -317,14 +397,25 @@ public class AppointmentServiceImpl implements IAppointmentService {
         AppointmentEntity appointment = appointmentRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Appointment doesn't exist"));
 
-        if (appointment.getStatus() == AppointmentStatus.ACCEPTED) {
-            throw new ResourceAlreadyExistsException("This appointment is already ACEPTED");
-        }
-
-        appointment.setStatus(AppointmentStatus.ACCEPTED);
-        appointmentRepository.save(appointment);
-
-        return appointmentMapper.toResponseDto(appointment);
+        // Accepting a canceled appointment takes its slot back, so it goes through the same checks as a booking
+        AppointmentEntity acceptedAppointment = appointmentBookingLock.executeForParticipants(
+                appointment.getPsychologist().getUserId(), appointment.getPatient().getUserId(), () -> {
+            AppointmentEntity current = appointmentRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Appointment doesn't exist"));
+
+            if (current.getStatus() == AppointmentStatus.ACCEPTED) {
+                throw new ResourceAlreadyExistsException("This appointment is already ACEPTED");
+            }
+            if (!AppointmentSlotIndex.isActive(current)) {
+                checkSlotIsFree(current.getPatient(), current.getPsychologist(), current.getDate(), current.getId());
+            }
+
+            current.setStatus(AppointmentStatus.ACCEPTED);
+            return appointmentRepository.save(current);
+        });
+        appointmentSlotIndex.refresh(acceptedAppointment, acceptedAppointment.getDate());
+
+        return appointmentMapper.toResponseDto(acceptedAppointment);
     }
 
     @Override
@@ -339,6 +430,7 @@ public class AppointmentServiceImpl implements IAppointmentService {
 
         appointment.setStatus(AppointmentStatus.CANCELED);
         appointmentRepository.save(appointment);
+        appointmentSlotIndex.refresh(appointment, appointment.getDate());
 
         return appointmentMapper.toResponseDto(appointment);
     };
@@ -354,44 +446,153 @@ public class AppointmentServiceImpl implements IAppointmentService {
         User patient = existingAppointment.getPatient();
         User psychologist = existingAppointment.getPsychologist();
 
-        // Verificar si el paciente tiene otras citas en el mismo día (excluyendo
-        // canceladas)
-        LocalDateTime startOfDay = requestUpdateAppointmentDto.date().toLocalDate().atStartOfDay();
-        LocalDateTime endOfDay = startOfDay.plusDays(1);
+        LocalDateTime appointmentStart = requestUpdateAppointmentDto.date();
+        LocalDateTime previousDate = existingAppointment.getDate();
+        rejectIndexedConflict(psychologist.getUserId(), appointmentStart, existingAppointment.getId());
+
+        // Validaciones y guardado serializados por psicólogo y paciente, la base de datos tiene la última palabra
+        AppointmentEntity updatedAppointment = appointmentBookingLock.executeForParticipants(
+                psychologist.getUserId(), patient.getUserId(), () -> {
+            // Verificar solapamientos del psicólogo y otras citas del paciente ese día, excluyendo la cita actual
+            checkSlotIsFree(patient, psychologist, appointmentStart, existingAppointment.getId());
+
+            // Actualizar la cita
+            existingAppointment.setDate(appointmentStart);
+            existingAppointment.setStatus(AppointmentStatus.PENDING);
+            return appointmentRepository.save(existingAppointment);
+        });
+        appointmentSlotIndex.refresh(updatedAppointment, previousDate);
+
+        return appointmentMapper.toResponseDto(updatedAppointment);
+    }
 
-        long patientAppointmentsCount = appointmentRepository.countByPatientAndDateBetweenAndStatusNot(
-                patient, startOfDay, endOfDay, AppointmentStatus.CANCELED);
+    // The request is validated as a whole before anything is written. Every item is then applied in one transaction
+    // holding the booking locks of all participants; items that cannot be applied get a failed result of their own.
+    @Override
+    public List<ResponseBatchAppointmentItemDto> batchUpdate(RequestBatchAppointmentDto requestDto) {
+        List<RequestBatchAppointmentItemDto> items = requestDto.items();
+        validateBatch(items);
 
-        // Excluir la cita actual de la validación
-        if (patientAppointmentsCount > 1 ||
-                (patientAppointmentsCount == 1 && !existingAppointment.getDate().toLocalDate()
-                        .equals(requestUpdateAppointmentDto.date().toLocalDate()))) {
-            throw new AppointmentConflictException("Patient already has an appointment on this day");
+        Set<String> ids = items.stream()
+                .map(RequestBatchAppointmentItemDto::id)
+                .collect(Collectors.toSet());
+        List<AppointmentEntity> requestedAppointments = appointmentRepository.findAllById(ids);
+        Set<String> psychologistIds = requestedAppointments.stream()
+                .map(appointment -> appointment.getPsychologist().getUserId())
+                .collect(Collectors.toSet());
+        Set<String> patientIds = requestedAppointments.stream()
+                .map(appointment -> appointment.getPatient().getUserId())
+                .collect(Collectors.toSet());
+
+        ResponseBatchAppointmentItemDto[] results = new ResponseBatchAppointmentItemDto[items.size()];
+        Map<String, LocalDateTime> previousDates = new HashMap<>();
+
+        List<AppointmentEntity> changedAppointments = appointmentBookingLock.executeForParticipants(
+                psychologistIds, patientIds, () -> {
+            // Re-read under the locks, the rows may have changed since the participants were collected
+            Map<String, AppointmentEntity> appointmentsById = appointmentRepository.findAllById(ids).stream()
+                    .collect(Collectors.toMap(AppointmentEntity::getId, Function.identity()));
+
+            List<AppointmentEntity> changed = new ArrayList<>();
+            for (int i = 0; i < items.size(); i++) {
+                RequestBatchAppointmentItemDto item = items.get(i);
+                AppointmentEntity appointment = appointmentsById.get(item.id());
+                if (appointment == null) {
+                    results[i] = batchFailure(item, "Appointment doesn't exist");
+                    continue;
+                }
+
+                LocalDateTime previousDate = appointment.getDate();
+                try {
+                    applyBatchAction(appointment, item);
+                } catch (AppointmentConflictException | ResourceAlreadyExistsException e) {
+                    results[i] = batchFailure(item, e.getMessage());
+                    continue;
+                }
+
+                previousDates.put(appointment.getId(), previousDate);
+                changed.add(appointment);
+                results[i] = batchSuccess(item, appointment.getStatus(), appointment.getDate());
+            }
+
+            appointmentRepository.saveAll(changed);
+            return changed;
+        });
+        changedAppointments.forEach(appointment ->
+                appointmentSlotIndex.refresh(appointment, previousDates.get(appointment.getId())));
+
+        return Arrays.asList(results);
+    }
+
+    private void validateBatch(List<RequestBatchAppointmentItemDto> items) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("At least one appointment is required");
+        }
+        if (items.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("A batch cannot contain more than " + MAX_BATCH_SIZE + " appointments");
         }
 
-        // Verificar solapamientos para el psicólogo
-        LocalDateTime appointmentStart = requestUpdateAppointmentDto.date();
-        LocalDateTime bufferBefore = appointmentStart.minusMinutes(29);
-        LocalDateTime bufferAfter = appointmentStart.plusMinutes(29);
-
-        boolean hasConflictingAppointments = appointmentRepository
-                .existsByPsychologistAndDateBetweenAndStatusInAndIdNot(
-                        psychologist,
-                        bufferBefore,
-                        bufferAfter,
-                        List.of(AppointmentStatus.PENDING, AppointmentStatus.ACCEPTED),
-                        existingAppointment.getId());
-
-        if (hasConflictingAppointments) {
-            throw new AppointmentConflictException("Psychologist has conflicting appointments nearby");
+        Set<String> seenIds = new HashSet<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (RequestBatchAppointmentItemDto item : items) {
+            if (item == null || item.id() == null || item.id().isBlank() || item.action() == null) {
+                throw new IllegalArgumentException("Every batch item needs an appointment id and an action");
+            }
+            if (!seenIds.add(item.id())) {
+                throw new IllegalArgumentException("Appointment " + item.id() + " appears more than once in the batch");
+            }
+            if (item.action() == AppointmentBatchAction.RESCHEDULE && (item.date() == null || !item.date().isAfter(now))) {
+                throw new IllegalArgumentException("A future date is required to reschedule appointment " + item.id());
+            }
         }
+    }
 
-        // Actualizar la cita
-        existingAppointment.setDate(requestUpdateAppointmentDto.date());
-        existingAppointment.setStatus(AppointmentStatus.PENDING);
-        AppointmentEntity updatedAppointment = appointmentRepository.save(existingAppointment);
+    // Runs inside the batch transaction, under the booking locks of the appointment's participants
+    private void applyBatchAction(AppointmentEntity appointment, RequestBatchAppointmentItemDto item) {
+        switch (item.action()) {
+            case CONFIRM -> {
+                if (appointment.getStatus() == AppointmentStatus.ACCEPTED) {
+                    throw new ResourceAlreadyExistsException("This appointment is already " + AppointmentStatus.ACCEPTED);
+                }
+                if (!AppointmentSlotIndex.isActive(appointment)) {
+                    checkSlotIsFree(appointment.getPatient(), appointment.getPsychologist(),
+                            appointment.getDate(), appointment.getId());
+                }
+                appointment.setStatus(AppointmentStatus.ACCEPTED);
+            }
+            case CANCEL -> {
+                if (appointment.getStatus() == AppointmentStatus.CANCELED) {
+                    throw new ResourceAlreadyExistsException("This appointment is already " + AppointmentStatus.CANCELED);
+                }
+                appointment.setStatus(AppointmentStatus.CANCELED);
+            }
+            case RESCHEDULE -> {
+                checkSlotIsFree(appointment.getPatient(), appointment.getPsychologist(), item.date(), appointment.getId());
+                appointment.setDate(item.date());
+                appointment.setStatus(AppointmentStatus.PENDING);
+            }
+            default -> throw new IllegalArgumentException("Unsupported batch action: " + item.action());
+        }
+    }
 
-        return appointmentMapper.toResponseDto(updatedAppointment);
+    private ResponseBatchAppointmentItemDto batchSuccess(RequestBatchAppointmentItemDto item,
+                                                         AppointmentStatus status, LocalDateTime date) {
+        return ResponseBatchAppointmentItemDto.builder()
+                .id(item.id())
+                .action(item.action())
+                .success(true)
+                .status(status)
+                .date(date)
+                .build();
+    }
+
+    private ResponseBatchAppointmentItemDto batchFailure(RequestBatchAppointmentItemDto item, String message) {
+        return ResponseBatchAppointmentItemDto.builder()
+                .id(item.id())
+                .action(item.action())
+                .success(false)
+                .message(message)
+                .build();
     }
 
     @Override
@@ -405,6 +606,7 @@ public class AppointmentServiceImpl implements IAppointmentService {
         appointment.setStatus(AppointmentStatus.CANCELED);
 
         AppointmentEntity deletedAppointment = appointmentRepository.save(appointment);
+        appointmentSlotIndex.refresh(deletedAppointment, deletedAppointment.getDate());
 
         return ResponseDeleteAppointmentDto.builder()
                 .appointmentId(deletedAppointment.getId())
@@ -418,11 +620,88 @@ public class AppointmentServiceImpl implements IAppointmentService {
         AppointmentEntity appointment = appointmentRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Appointment doesn't exist"));
 
-        appointment.setSoftDelete(null);
-        appointment.setStatus(AppointmentStatus.PENDING);
-        AppointmentEntity reactivatedAppointment = appointmentRepository.save(appointment);
+        // The slot may have been booked by someone else since the appointment was canceled
+        AppointmentEntity reactivatedAppointment = appointmentBookingLock.executeForParticipants(
+                appointment.getPsychologist().getUserId(), appointment.getPatient().getUserId(), () -> {
+            AppointmentEntity current = appointmentRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Appointment doesn't exist"));
+
+            if (!AppointmentSlotIndex.isActive(current)) {
+                checkSlotIsFree(current.getPatient(), current.getPsychologist(), current.getDate(), current.getId());
+            }
+
+            current.setSoftDelete(null);
+            current.setStatus(AppointmentStatus.PENDING);
+            return appointmentRepository.save(current);
+        });
+        appointmentSlotIndex.refresh(reactivatedAppointment, reactivatedAppointment.getDate());
 
         return appointmentMapper.appointmentToResponseReactivateAppointmentDto(reactivatedAppointment);
     }
 
-}
\ No newline at end of file
+    private static void requireParticipantIds(String patientId, String psychologistId) {
+        if (patientId == null || psychologistId == null) {
+            throw new IllegalArgumentException("Patient and psychologist ids are required");
+        }
+    }
+
+    // Called inside the booking transaction, so new appointments reference managed users
+    // (they cascade to both participants and would otherwise be persisted as detached entities)
+    private User findPatient(String patientId) {
+        User patient = userRepository.findById(patientId)
+                .orElseThrow(() -> new UserNotFoundException("Patient not found"));
+        if (patient.getRole() != Role.PATIENT)
+            throw new RoleMismatchException("User must be a patient to schedule an appointment");
+        return patient;
+    }
+
+    private User findPsychologist(String psychologistId) {
+        User psychologist = userRepository.findById(psychologistId)
+                .orElseThrow(() -> new UserNotFoundException("Psychologist not found"));
+        if (psychologist.getRole() != Role.PSYCHOLOGIST)
+            throw new RoleMismatchException("User must be a psychologist to schedule an appointment");
+        return psychologist;
+    }
+
+    // Checked before taking AppointmentBookingLock: a conflict in AppointmentSlotIndex that the database confirms is
+    // rejected without waiting for the lock. The index can be stale (other replicas), so an unconfirmed hit, like a
+    // slot the index sees as free, goes on to checkSlotIsFree under the lock.
+    private void rejectIndexedConflict(String psychologistId, LocalDateTime start, String excludedAppointmentId) {
+        if (appointmentSlotIndex.hasConflict(psychologistId, start, excludedAppointmentId)
+                && psychologistHasAppointmentNearby(userRepository.getReferenceById(psychologistId), start, excludedAppointmentId)) {
+            throw new AppointmentConflictException("Psychologist has conflicting appointments nearby");
+        }
+    }
+
+    // Must run under AppointmentBookingLock: the database, not AppointmentSlotIndex, decides if the slot is free.
+    // excludedAppointmentId is the appointment being moved or reactivated (null for a new booking).
+    private void checkSlotIsFree(User patient, User psychologist, LocalDateTime start, String excludedAppointmentId) {
+        LocalDateTime startOfDay = start.toLocalDate().atStartOfDay();
+        LocalDateTime endOfDay = startOfDay.plusDays(1);
+
+        long patientAppointmentsCount = excludedAppointmentId == null
+                ? appointmentRepository.countByPatientAndDateBetweenAndStatusNot(
+                        patient, startOfDay, endOfDay, AppointmentStatus.CANCELED)
+                : appointmentRepository.countByPatientAndDateBetweenAndStatusNotAndIdNot(
+                        patient, startOfDay, endOfDay, AppointmentStatus.CANCELED, excludedAppointmentId);
+
+        if (patientAppointmentsCount > 0) {
+            throw new AppointmentConflictException("Patient already has an appointment on this day");
+        }
+
+        if (psychologistHasAppointmentNearby(psychologist, start, excludedAppointmentId)) {
+            throw new AppointmentConflictException("Psychologist has conflicting appointments nearby");
+        }
+    }
+
+    private boolean psychologistHasAppointmentNearby(User psychologist, LocalDateTime start, String excludedAppointmentId) {
+        LocalDateTime from = start.minusMinutes(AppointmentSlotIndex.BUFFER_MINUTES);
+        LocalDateTime to = start.plusMinutes(AppointmentSlotIndex.BUFFER_MINUTES);
+        return excludedAppointmentId == null
+                ? appointmentRepository.existsByPsychologistAndDateBetweenAndStatusInAndSoftDeleteIsNull(
+                        psychologist, from, to, AppointmentSlotIndex.ACTIVE_STATUSES)
+                : appointmentRepository.existsByPsychologistAndDateBetweenAndStatusInAndSoftDeleteIsNullAndIdNot(
+                        psychologist, from, to, AppointmentSlotIndex.ACTIVE_STATUSES, excludedAppointmentId);
+    }
+
+}
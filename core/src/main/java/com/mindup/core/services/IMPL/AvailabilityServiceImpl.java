@@ -0,0 +1,198 @@
+package com.mindup.core.services.IMPL;
+
+import com.mindup.core.dtos.Appointment.AppointmentSlotDto;
+import com.mindup.core.dtos.Appointment.ResponseAvailabilityDto;
+import com.mindup.core.enums.Role;
+import com.mindup.core.exceptions.UserNotFoundException;
+import com.mindup.core.repositories.UserRepository;
+import com.mindup.core.services.AppointmentSlotChangedEvent;
+import com.mindup.core.services.AppointmentSlotIndex;
+import com.mindup.core.services.IAvailabilityService;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// Free 30-minute slots per psychologist. Each (psychologist, day) keeps a precomputed 48-bit mask of the
+// slots blocked by active appointments; masks are derived from AppointmentSlotIndex and dropped for the
+// affected days whenever an appointment changes, so a query is a few bit operations per day.
+// The masks live in a bounded cache (appointments.availability.mask-cache-spec) and only cover known
+// psychologists and days up to MAX_DAYS_AHEAD, so arbitrary ids or dates cannot grow it.
+@Service
+public class AvailabilityServiceImpl implements IAvailabilityService {
+    public static final int SLOT_MINUTES = 30;
+    private static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+    private static final int MAX_DAYS_PER_RANGE = 31;
+    private static final int MAX_DAYS_AHEAD = 180;
+
+    private final AppointmentSlotIndex appointmentSlotIndex;
+    private final UserRepository userRepository;
+    private final long workingHoursMask;
+    private final Set<DayOfWeek> workingDays;
+    private final Cache<String, ConcurrentMap<LocalDate, Long>> busyMasks;
+
+    public AvailabilityServiceImpl(
+            AppointmentSlotIndex appointmentSlotIndex,
+            UserRepository userRepository,
+            @Value("${appointments.availability.mask-cache-spec}") String maskCacheSpec,
+            @Value("${appointments.availability.day-start:09:00}") String dayStart,
+            @Value("${appointments.availability.day-end:18:00}") String dayEnd,
+            @Value("${appointments.availability.working-days:MONDAY,TUESDAY,WEDNESDAY,THURSDAY,FRIDAY}") String[] workingDays) {
+        this.appointmentSlotIndex = appointmentSlotIndex;
+        this.userRepository = userRepository;
+        this.busyMasks = Caffeine.from(maskCacheSpec).build();
+        this.workingHoursMask = workingHoursMask(LocalTime.parse(dayStart), LocalTime.parse(dayEnd));
+        this.workingDays = EnumSet.noneOf(DayOfWeek.class);
+        Arrays.stream(workingDays)
+                .map(day -> DayOfWeek.valueOf(day.trim().toUpperCase()))
+                .forEach(this.workingDays::add);
+    }
+
+    @Override
+    public List<ResponseAvailabilityDto> getFreeSlots(String psychologistId, LocalDate from, LocalDate to) {
+        if (psychologistId == null || psychologistId.isBlank()) {
+            throw new IllegalArgumentException("Psychologist ID must not be null or empty");
+        }
+        if (from == null || to == null || to.isBefore(from)) {
+            throw new IllegalArgumentException("A valid date range is required");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_DAYS_PER_RANGE) {
+            throw new IllegalArgumentException("Date range cannot exceed " + MAX_DAYS_PER_RANGE + " days");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        if (to.isAfter(now.toLocalDate().plusDays(MAX_DAYS_AHEAD))) {
+            throw new IllegalArgumentException("Free slots are only available up to " + MAX_DAYS_AHEAD + " days ahead");
+        }
+        // Only psychologists get an entry in the cache; the lookup is skipped while their masks are cached
+        if (busyMasks.getIfPresent(psychologistId) == null
+                && !userRepository.existsByUserIdAndRole(psychologistId, Role.PSYCHOLOGIST)) {
+            throw new UserNotFoundException("Psychologist not found");
+        }
+
+        ConcurrentMap<LocalDate, Long> masks = masksFor(psychologistId);
+        masks.keySet().removeIf(day -> day.isBefore(now.toLocalDate()));
+
+        List<ResponseAvailabilityDto> availability = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            long freeMask = 0;
+            if (workingDays.contains(day.getDayOfWeek()) && !day.isBefore(now.toLocalDate())) {
+                long busyMask = masks.computeIfAbsent(day, d -> computeBusyMask(psychologistId, d));
+                freeMask = workingHoursMask & ~busyMask & notPastMask(day, now);
+            }
+
+            availability.add(ResponseAvailabilityDto.builder()
+                    .date(day)
+                    .freeSlots(toSlotTimes(freeMask))
+                    .build());
+        }
+        return availability;
+    }
+
+    @Override
+    public List<LocalDateTime> workingSlots(int horizonDays) {
+        if (horizonDays < 1 || horizonDays > MAX_DAYS_AHEAD) {
+            throw new IllegalArgumentException("Horizon must be between 1 and " + MAX_DAYS_AHEAD + " days");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate today = now.toLocalDate();
+        List<LocalDateTime> slots = new ArrayList<>();
+        for (LocalDate day = today; day.isBefore(today.plusDays(horizonDays)); day = day.plusDays(1)) {
+            if (workingDays.contains(day.getDayOfWeek())) {
+                LocalDate slotDay = day;
+                toSlotTimes(workingHoursMask & notPastMask(day, now)).forEach(time -> slots.add(slotDay.atTime(time)));
+            }
+        }
+        return slots;
+    }
+
+    @EventListener
+    public void onAppointmentSlotChanged(AppointmentSlotChangedEvent event) {
+        ConcurrentMap<LocalDate, Long> masks = busyMasks.getIfPresent(event.psychologistId());
+        if (masks != null) {
+            invalidate(masks, event.previousDate());
+            invalidate(masks, event.date());
+        }
+    }
+
+    private ConcurrentMap<LocalDate, Long> masksFor(String psychologistId) {
+        return busyMasks.get(psychologistId, id -> new ConcurrentHashMap<>());
+    }
+
+    // The conflict buffer can reach into the neighbouring days, so those masks are dropped as well
+    private void invalidate(ConcurrentMap<LocalDate, Long> masks, LocalDateTime date) {
+        if (date == null) {
+            return;
+        }
+        LocalDate day = date.toLocalDate();
+        masks.remove(day.minusDays(1));
+        masks.remove(day);
+        masks.remove(day.plusDays(1));
+    }
+
+    // A slot is blocked when an active appointment starts within the booking buffer of the slot start
+    private long computeBusyMask(String psychologistId, LocalDate day) {
+        LocalDateTime dayStart = day.atStartOfDay();
+        long buffer = AppointmentSlotIndex.BUFFER_MINUTES;
+
+        long mask = 0;
+        for (AppointmentSlotDto slot : appointmentSlotIndex.slotsBetween(
+                psychologistId, dayStart.minusMinutes(buffer), dayStart.plusDays(1).plusMinutes(buffer + 1))) {
+            long minute = Duration.between(dayStart, slot.date()).toMinutes();
+            long firstSlot = Math.max(0, -Math.floorDiv(buffer - minute, SLOT_MINUTES));
+            long lastSlot = Math.min(SLOTS_PER_DAY - 1, Math.floorDiv(minute + buffer, SLOT_MINUTES));
+            for (long i = firstSlot; i <= lastSlot; i++) {
+                mask |= 1L << i;
+            }
+        }
+        return mask;
+    }
+
+    private long notPastMask(LocalDate day, LocalDateTime now) {
+        if (day.isAfter(now.toLocalDate())) {
+            return -1L;
+        }
+        int minuteOfDay = now.getHour() * 60 + now.getMinute();
+        int firstFutureSlot = minuteOfDay / SLOT_MINUTES + 1;
+        return firstFutureSlot >= SLOTS_PER_DAY ? 0 : -1L << firstFutureSlot;
+    }
+
+    private static long workingHoursMask(LocalTime dayStart, LocalTime dayEnd) {
+        long mask = 0;
+        int startMinute = dayStart.getHour() * 60 + dayStart.getMinute();
+        int endMinute = dayEnd.getHour() * 60 + dayEnd.getMinute();
+        for (int i = 0; i < SLOTS_PER_DAY; i++) {
+            int slotStart = i * SLOT_MINUTES;
+            if (slotStart >= startMinute && slotStart + SLOT_MINUTES <= endMinute) {
+                mask |= 1L << i;
+            }
+        }
+        return mask;
+    }
+
+    private static List<LocalTime> toSlotTimes(long mask) {
+        List<LocalTime> slots = new ArrayList<>(Long.bitCount(mask));
+        for (long remaining = mask; remaining != 0; remaining &= remaining - 1) {
+            int slot = Long.numberOfTrailingZeros(remaining);
+            slots.add(LocalTime.MIDNIGHT.plusMinutes((long) slot * SLOT_MINUTES));
+        }
+        return slots;
+    }
+}
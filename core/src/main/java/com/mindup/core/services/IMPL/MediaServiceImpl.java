@@ -0,0 +1,285 @@
+package com.mindup.core.services.IMPL;
+
+import com.mindup.core.exceptions.ImageValidationException;
+import com.mindup.core.services.IMediaService;
+import com.mindup.core.services.StoredMedia;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.regex.Pattern;
+
+// Content-addressed image store on the local filesystem.
+// Uploads are streamed to disk while hashed, so whole files are never held on heap;
+// thumbnails are generated on the media executor and regenerated on demand if missing.
+@Slf4j
+@Service
+public class MediaServiceImpl implements IMediaService {
+
+    private static final Map<String, String> CONTENT_TYPES = Map.of(
+            "jpeg", "image/jpeg",
+            "png", "image/png",
+            "gif", "image/gif",
+            "bmp", "image/bmp");
+    private static final String THUMBNAIL_CONTENT_TYPE = "image/jpeg";
+    private static final Pattern HASH_PATTERN = Pattern.compile("[0-9a-f]{64}");
+    private static final long MAX_PIXELS = 40_000_000L;
+
+    private final Path originalsRoot;
+    private final Path thumbnailsRoot;
+    private final Path uploadsRoot;
+    private final List<Integer> thumbnailSizes;
+    private final Executor mediaExecutor;
+    private final Set<String> thumbnailsInProgress = ConcurrentHashMap.newKeySet();
+    private final Counter thumbnailFailures;
+
+    public MediaServiceImpl(@Value("${media.storage.root}") String storageRoot,
+                            @Value("${media.thumbnail.sizes}") List<Integer> thumbnailSizes,
+                            @Qualifier("mediaExecutor") Executor mediaExecutor,
+                            MeterRegistry meterRegistry) {
+        Path root = Paths.get(storageRoot);
+        this.originalsRoot = root.resolve("originals");
+        this.thumbnailsRoot = root.resolve("thumbnails");
+        this.uploadsRoot = root.resolve("uploads");
+        this.thumbnailSizes = List.copyOf(thumbnailSizes);
+        this.mediaExecutor = mediaExecutor;
+        this.thumbnailFailures = Counter.builder("media.thumbnail.failures")
+                .description("Thumbnail generations that failed; the original keeps being served")
+                .register(meterRegistry);
+        try {
+            Files.createDirectories(originalsRoot);
+            Files.createDirectories(thumbnailsRoot);
+            Files.createDirectories(uploadsRoot);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to create media storage under " + root, e);
+        }
+    }
+
+    @Override
+    public StoredMedia storeImage(MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            throw new ImageValidationException("Profile image file cannot be empty.");
+        }
+
+        Path upload = null;
+        try {
+            upload = Files.createTempFile(uploadsRoot, "upload-", ".tmp");
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+                Files.copy(in, upload, StandardCopyOption.REPLACE_EXISTING);
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+            String format = detectFormat(upload);
+
+            Path original = originalPath(hash, format);
+            if (Files.exists(original)) {
+                // Same bytes were uploaded before
+                Files.delete(upload);
+            } else {
+                Files.createDirectories(original.getParent());
+                Files.move(upload, original, StandardCopyOption.ATOMIC_MOVE);
+            }
+            upload = null;
+
+            scheduleThumbnails(hash, original);
+            return new StoredMedia(hash, CONTENT_TYPES.get(format));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to store profile image", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            if (upload != null) {
+                try {
+                    Files.deleteIfExists(upload);
+                } catch (IOException ignored) {
+                    // Leftover temp files are harmless
+                }
+            }
+        }
+    }
+
+    @Override
+    public Optional<StoredMediaFile> findOriginal(String hash) {
+        if (!HASH_PATTERN.matcher(hash).matches()) {
+            return Optional.empty();
+        }
+        for (Map.Entry<String, String> entry : CONTENT_TYPES.entrySet()) {
+            Path original = originalPath(hash, entry.getKey());
+            if (Files.isRegularFile(original)) {
+                return Optional.of(new StoredMediaFile(original, entry.getValue()));
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<StoredMediaFile> findThumbnail(String hash, int size) {
+        if (!thumbnailSizes.contains(size) || !HASH_PATTERN.matcher(hash).matches()) {
+            return Optional.empty();
+        }
+        Path thumbnail = thumbnailPath(hash, size);
+        if (Files.isRegularFile(thumbnail)) {
+            return Optional.of(new StoredMediaFile(thumbnail, THUMBNAIL_CONTENT_TYPE));
+        }
+        // Generation was skipped or is still running; queue it and let the caller fall back to the original
+        findOriginal(hash).ifPresent(original -> scheduleThumbnails(hash, original.path()));
+        return Optional.empty();
+    }
+
+    @Override
+    public List<Integer> getThumbnailSizes() {
+        return thumbnailSizes;
+    }
+
+    private void scheduleThumbnails(String hash, Path original) {
+        if (!thumbnailsInProgress.add(hash)) {
+            return;
+        }
+        try {
+            mediaExecutor.execute(() -> {
+                try {
+                    generateThumbnails(hash, original);
+                } finally {
+                    thumbnailsInProgress.remove(hash);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Executor saturated; the next thumbnail request schedules it again
+            thumbnailsInProgress.remove(hash);
+        }
+    }
+
+    // Reads only the header to identify the format and reject oversized images before decoding
+    private static String detectFormat(Path file) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = input == null ? Collections.emptyIterator() : ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new ImageValidationException("The uploaded file is not a supported image.");
+            }
+            ImageReader reader = readers.next();
+            try {
+                String format = reader.getFormatName().toLowerCase();
+                if ("jpg".equals(format)) {
+                    format = "jpeg";
+                }
+                if (!CONTENT_TYPES.containsKey(format)) {
+                    throw new ImageValidationException("Unsupported image format: " + format);
+                }
+                reader.setInput(input, true, true);
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > MAX_PIXELS) {
+                    throw new ImageValidationException("The uploaded image dimensions are too large.");
+                }
+                return format;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private void generateThumbnails(String hash, Path original) {
+        try (ImageInputStream input = ImageIO.createImageInputStream(original.toFile())) {
+            Iterator<ImageReader> readers = input == null ? Collections.emptyIterator() : ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                thumbnailFailed(hash, null);
+                return;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                // Subsample while decoding so large originals never materialise at full resolution
+                int largest = Collections.max(thumbnailSizes);
+                int longestSide = Math.max(reader.getWidth(0), reader.getHeight(0));
+                int subsampling = Math.max(1, longestSide / (largest * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                BufferedImage source = reader.read(0, param);
+
+                for (int size : thumbnailSizes) {
+                    writeThumbnail(source, thumbnailPath(hash, size), size);
+                }
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | RuntimeException e) {
+            // Broken images keep being served through the original
+            thumbnailFailed(hash, e);
+        }
+    }
+
+    private void thumbnailFailed(String hash, Exception cause) {
+        thumbnailFailures.increment();
+        log.warn("Thumbnail generation failed for media {}", hash, cause);
+    }
+
+    private void writeThumbnail(BufferedImage source, Path target, int size) throws IOException {
+        if (Files.exists(target)) {
+            return;
+        }
+        double scale = Math.min(1.0, (double) size / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        // JPEG has no alpha channel, transparent areas are flattened on white
+        BufferedImage thumbnail = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = thumbnail.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(uploadsRoot, "thumb-", ".tmp");
+        try {
+            ImageIO.write(thumbnail, "jpg", temp.toFile());
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Two-character fan-out keeps directories small
+    private Path originalPath(String hash, String format) {
+        return originalsRoot.resolve(hash.substring(0, 2)).resolve(hash + "." + format);
+    }
+
+    private Path thumbnailPath(String hash, int size) {
+        return thumbnailsRoot.resolve(String.valueOf(size)).resolve(hash.substring(0, 2)).resolve(hash + ".jpg");
+    }
+}
@@ -1,5 +1,6 @@
 package com.mindup.core.services.IMPL;
 
+import com.mindup.core.config.CacheConfig;
 import com.mindup.core.validations.VideoValidation;
 import com.mindup.core.entities.EmailVerification;
 import com.mindup.core.dtos.User.*;
@@ -8,36 +9,59 @@ import com.mindup.core.entities.User;
 import com.mindup.core.enums.*;
 import com.mindup.core.exceptions.*;
 import com.mindup.core.feign.ChatFeignClient;
+import com.mindup.core.repositories.IAppointmentRepository;
 import com.mindup.core.repositories.PasswordResetTokenRepository;
 import com.mindup.core.repositories.UserRepository;
 import com.mindup.core.security.JwtService;
+import com.mindup.core.security.PasswordHashingService;
 import com.mindup.core.services.EmailVerificationService;
+import com.mindup.core.services.IMediaService;
+import com.mindup.core.services.ProfileMediaChangedEvent;
+import com.mindup.core.services.ProfileMediaVerifier;
+import com.mindup.core.services.StoredMedia;
+import com.mindup.core.services.UserProfileCache;
 import com.mindup.core.services.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import com.mindup.core.mappers.UserMapper;
 import com.mindup.core.validations.*;
 import java.io.IOException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
 
 @RequiredArgsConstructor
 @Service
 public class UserServiceImpl implements UserService {
 
+    private static final String MEDIA_PATH = "/api/core/media/";
+    private static final int MAX_PROFILE_BATCH_SIZE = 100;
+
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final UserMapper userMapper;
     private final JwtService jwtService;
     private final EmailVerificationService emailVerificationService;
     private final ChatFeignClient chatFeignClient;
     private final PasswordResetTokenRepository passwordResetTokenRepository;
+    private final UserProfileCache userProfileCache;
+    private final IAppointmentRepository appointmentRepository;
+    private final ProfileMediaVerifier profileMediaVerifier;
+    private final ApplicationEventPublisher eventPublisher;
+    private final IMediaService mediaService;
 
     @Override
     @Transactional
@@ -50,7 +74,7 @@ public class UserServiceImpl implements UserService {
         PasswordValidation.validatePassword(userRegisterDTO.getPassword());
 
         User user = userMapper.toUser(userRegisterDTO);
-        user.setPassword(passwordEncoder.encode(userRegisterDTO.getPassword()));
+        user.setPassword(passwordHashingService.encode(userRegisterDTO.getPassword()));
 
         userRepository.save(user);
 
@@ -70,11 +94,77 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.USER_PROFILES, key = "#userId", unless = "#result == null")
     public Optional<UserProfileDTO> findUserById(String userId) {
         return userRepository.findById(userId)
                 .map(this::mapToUserProfileDTO);
     }
 
+    // Resolves cached profiles first and loads the rest with a single findAllById.
+    // Access is checked per id: own profile and psychologists are always readable,
+    // patients only by a psychologist they have appointments with.
+    @Override
+    public ResponseUserProfileBatchDto findUserProfilesByIds(List<String> userIds, String requesterId, String requesterRole) {
+        // Same bounds as RequestUserProfileBatchDto, for callers that skip bean validation
+        if (userIds == null || userIds.isEmpty() || userIds.size() > MAX_PROFILE_BATCH_SIZE) {
+            throw new IllegalArgumentException("Between 1 and " + MAX_PROFILE_BATCH_SIZE + " user ids must be requested.");
+        }
+        if (userIds.stream().anyMatch(id -> id == null || id.isBlank())) {
+            throw new IllegalArgumentException("User ids cannot be blank.");
+        }
+        Set<String> ids = new LinkedHashSet<>(userIds);
+        Map<String, UserProfileDTO> resolved = new HashMap<>();
+        List<String> misses = new ArrayList<>();
+        for (String id : ids) {
+            UserProfileDTO cached = userProfileCache.get(id);
+            if (cached != null) {
+                resolved.put(id, cached);
+            } else {
+                misses.add(id);
+            }
+        }
+        if (!misses.isEmpty()) {
+            for (User user : userRepository.findAllById(misses)) {
+                UserProfileDTO profile = mapToUserProfileDTO(user);
+                userProfileCache.put(user.getUserId(), profile);
+                resolved.put(user.getUserId(), profile);
+            }
+        }
+
+        Set<String> ownPatients = Set.of();
+        if (Role.PSYCHOLOGIST.name().equals(requesterRole)) {
+            List<String> patientIds = resolved.entrySet().stream()
+                    .filter(e -> e.getValue().getRole() == Role.PATIENT)
+                    .map(Map.Entry::getKey)
+                    .toList();
+            if (!patientIds.isEmpty()) {
+                ownPatients = appointmentRepository.findPatientIdsByPsychologistIdAndPatientIdIn(requesterId, patientIds);
+            }
+        }
+
+        Map<String, UserProfileDTO> profiles = new LinkedHashMap<>();
+        List<String> notFound = new ArrayList<>();
+        List<String> forbidden = new ArrayList<>();
+        for (String id : ids) {
+            UserProfileDTO profile = resolved.get(id);
+            if (profile == null) {
+                notFound.add(id);
+            } else if (id.equals(requesterId)
+                    || profile.getRole() == Role.PSYCHOLOGIST
+                    || ownPatients.contains(id)) {
+                profiles.put(id, profile);
+            } else {
+                forbidden.add(id);
+            }
+        }
+
+        return ResponseUserProfileBatchDto.builder()
+                .profiles(profiles)
+                .notFound(notFound)
+                .forbidden(forbidden)
+                .build();
+    }
+
     private UserProfileDTO mapToUserProfileDTO(User user) {
         UserProfileDTO profileDTO = new UserProfileDTO();
         profileDTO.setName(user.getName());
@@ -88,11 +178,13 @@ public class UserServiceImpl implements UserService {
         profileDTO.setInformation(user.getInformation());
         profileDTO.setChosenPsychologist(user.getChosenPsychologist());
         profileDTO.setImage(user.getImage());
+        profileDTO.setImageStatus(user.getImageStatus());
 
         if (user.getRole() == Role.PSYCHOLOGIST) {
             profileDTO.setTuition(user.getTuition());
             profileDTO.setSpecialty(user.getSpecialty());
             profileDTO.setVideo(user.getVideo());
+            profileDTO.setVideoStatus(user.getVideoStatus());
         }
         return profileDTO;
     }
@@ -104,31 +196,47 @@ public class UserServiceImpl implements UserService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException("User not found with ID: " + userId));
         System.out.println("User found: " + user.getEmail());
-        if (!passwordEncoder.matches(currentPassword, user.getPassword())) {
+        if (!passwordHashingService.matches(currentPassword, user.getPassword())) {
             throw new InvalidPasswordException("The current password is incorrect.");
         }
         PasswordValidation.validatePassword(newPassword);
-        user.setPassword(passwordEncoder.encode(newPassword));
+        user.setPassword(passwordHashingService.encode(newPassword));
         userRepository.save(user);
         System.out.println("Password updated successfully.");
     }
 
     @Override
-    @Transactional
-    public ResponseLoginDto authenticateUser(String email, String password) {
-        Optional<User> userOptional = userRepository.findByEmail(email);
-        if (!userOptional.isPresent()) {
-            return new ResponseLoginDto(null, email, null, null, null, null);
+    public LoginResultDto authenticateUser(String email, String password) {
+        Optional<LoginCredentialsDto> credentialsOptional = userRepository.findLoginCredentialsByEmail(email);
+        if (credentialsOptional.isEmpty()) {
+            return new LoginResultDto(LoginStatus.USER_NOT_FOUND, null);
         }
 
-        User user = userOptional.get();
-        boolean isPasswordCorrect = passwordEncoder.matches(password, user.getPassword());
-        if (!isPasswordCorrect) {
-            return new ResponseLoginDto(user.getUserId(), email, user.getName(), null, null, user.getRole().toString());
+        LoginCredentialsDto credentials = credentialsOptional.get();
+        if (!passwordHashingService.matches(password, credentials.password())) {
+            return new LoginResultDto(LoginStatus.INVALID_CREDENTIALS, null);
+        }
+        if (!credentials.verified()) {
+            return new LoginResultDto(LoginStatus.NOT_VERIFIED, null);
         }
+        rehashIfNeeded(credentials.userId(), password, credentials.password());
 
-        String token = jwtService.generateToken(email, user.getUserId(), user.getName(), user.getImage(), user.getRole().toString());
-        return new ResponseLoginDto(user.getUserId(), email, user.getName(), null, user.getRole().toString(), token);
+        String role = credentials.role().toString();
+        String token = jwtService.generateToken(email, credentials.userId(), credentials.name(), credentials.image(), role);
+        return new LoginResultDto(LoginStatus.SUCCESS,
+                new ResponseLoginDto(credentials.userId(), email, credentials.name(), null, role, token));
+    }
+
+    // Moves the stored hash to the configured algorithm/cost while the raw password is at hand
+    private void rehashIfNeeded(String userId, String rawPassword, String encodedPassword) {
+        if (!passwordHashingService.needsRehash(encodedPassword)) {
+            return;
+        }
+        try {
+            userRepository.updatePassword(userId, encodedPassword, passwordHashingService.encode(rawPassword));
+        } catch (PasswordHashingUnavailableException e) {
+            // Saturated: keep the current hash, the next login tries again
+        }
     }
 
     @Override
@@ -146,6 +254,7 @@ public class UserServiceImpl implements UserService {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new UserNotFoundException("User not found with email: " + email));
         userRepository.delete(user);
+        userProfileCache.evict(user.getUserId());
     }
 
     @Override
@@ -154,8 +263,39 @@ public class UserServiceImpl implements UserService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException("User not found with userId: " + userId));
         ImageValidation.validateimage(profileImageDTO.getImage());
+        MediaVerificationStatus status = profileMediaVerifier.knownStatus(ProfileMedia.IMAGE, profileImageDTO.getImage());
+        if (status == MediaVerificationStatus.REJECTED) {
+            throw new ImageValidationException("Profile image URL is not accessible or is not an image: " + profileImageDTO.getImage());
+        }
         user.setImage(profileImageDTO.getImage());
+        user.setImageStatus(status);
+        userRepository.save(user);
+        userProfileCache.evict(userId);
+        if (status == MediaVerificationStatus.PENDING_VERIFICATION) {
+            eventPublisher.publishEvent(new ProfileMediaChangedEvent(userId, ProfileMedia.IMAGE, profileImageDTO.getImage()));
+        }
+    }
+
+    // Not transactional: the file is streamed to the media store before any DB connection is taken
+    @Override
+    public ResponseProfileImageUploadDto uploadProfileImage(String userId, MultipartFile file) {
+        // Unknown users are rejected before anything is written to the media store
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new UserNotFoundException("User not found with userId: " + userId));
+        StoredMedia media = mediaService.storeImage(file);
+        String image = MEDIA_PATH + media.hash();
+
+        user.setImage(image);
+        user.setImageStatus(MediaVerificationStatus.VERIFIED);
         userRepository.save(user);
+        userProfileCache.evict(userId);
+
+        return ResponseProfileImageUploadDto.builder()
+                .image(image)
+                .thumbnails(mediaService.getThumbnailSizes().stream()
+                        .map(size -> image + "/thumbnail/" + size)
+                        .toList())
+                .build();
     }
 
     @Override
@@ -164,7 +304,9 @@ public class UserServiceImpl implements UserService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException("User not found with userId: " + userId));
         user.setImage(null);
+        user.setImageStatus(null);
         userRepository.save(user);
+        userProfileCache.evict(userId);
     }
 
     @Override
@@ -279,6 +421,7 @@ public class UserServiceImpl implements UserService {
 
         if (isUpdated) {
             userRepository.save(user);
+            userProfileCache.evict(userId);
         }
     }
 
@@ -333,7 +476,7 @@ public class UserServiceImpl implements UserService {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
         User user = passwordResetToken.getUser();
-        user.setPassword(passwordEncoder.encode(newPassword));
+        user.setPassword(passwordHashingService.encode(newPassword));
         userRepository.save(user);
         passwordResetTokenRepository.delete(passwordResetToken);
         return ResponseEntity.ok("Password has been reset successfully.");
@@ -358,8 +501,17 @@ public class UserServiceImpl implements UserService {
         }
 
         VideoValidation.validateVideo(profileVideoDTO.getVideo());
+        MediaVerificationStatus status = profileMediaVerifier.knownStatus(ProfileMedia.VIDEO, profileVideoDTO.getVideo());
+        if (status == MediaVerificationStatus.REJECTED) {
+            throw new VideoValidationException("Video URL is not accessible: " + profileVideoDTO.getVideo());
+        }
         user.setVideo(profileVideoDTO.getVideo());
+        user.setVideoStatus(status);
         userRepository.save(user);
+        userProfileCache.evict(userId);
+        if (status == MediaVerificationStatus.PENDING_VERIFICATION) {
+            eventPublisher.publishEvent(new ProfileMediaChangedEvent(userId, ProfileMedia.VIDEO, profileVideoDTO.getVideo()));
+        }
     }
 
     @Override
@@ -373,6 +525,8 @@ public class UserServiceImpl implements UserService {
         }
 
         user.setVideo(null);
+        user.setVideoStatus(null);
         userRepository.save(user);
+        userProfileCache.evict(userId);
     }
 }
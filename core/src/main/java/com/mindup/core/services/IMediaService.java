@@ -0,0 +1,21 @@
+package com.mindup.core.services;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+public interface IMediaService {
+
+    StoredMedia storeImage(MultipartFile file);
+
+    Optional<StoredMediaFile> findOriginal(String hash);
+
+    Optional<StoredMediaFile> findThumbnail(String hash, int size);
+
+    List<Integer> getThumbnailSizes();
+
+    record StoredMediaFile(Path path, String contentType) {
+    }
+}
@@ -1,22 +1,46 @@
 package com.mindup.core.services;
 
 import com.mindup.core.dtos.User.PatientPreferencesDTO;
+import com.mindup.core.dtos.User.PsychologistSearchDTO;
+import com.mindup.core.dtos.User.PsychologistTextSearchView;
+import com.mindup.core.dtos.User.ResponsePsychologistAvailabilityDto;
+import com.mindup.core.dtos.User.ResponsePsychologistDto;
+import com.mindup.core.dtos.User.ResponsePsychologistPageDto;
+import com.mindup.core.dtos.User.ResponsePsychologistTextSearchPageDto;
 import com.mindup.core.entities.User;
 import com.mindup.core.enums.Gender;
 import com.mindup.core.exceptions.InvalidPreferencesException;
+import com.mindup.core.repositories.PsychologistSpecifications;
 import com.mindup.core.repositories.UserRepository;
+import com.mindup.core.utils.PsychologistCursor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
 public class PatientService {
 
+    private static final int MAX_RESULTS = 50;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int AGE_THRESHOLD = 35;
+    private static final int MAX_AGE = 120;
+    private static final int AVAILABILITY_HORIZON_DAYS = 30;
+
     private final UserRepository userRepository;
+    private final IAvailabilityService availabilityService;
 
-    public PatientService(UserRepository userRepository) {
+    public PatientService(UserRepository userRepository,
+                          IAvailabilityService availabilityService) {
         this.userRepository = userRepository;
+        this.availabilityService = availabilityService;
     }
 
     public void validatePreferences(PatientPreferencesDTO preferencesDTO) {
@@ -28,16 +52,193 @@ public class PatientService {
         }
     }
 
-    public List<User> searchPsychologists(PatientPreferencesDTO preferencesDTO) {
+    // The age preference is turned into a birth date bound so the filter runs in the database
+    public List<User> searchPsychologists(PatientPreferencesDTO preferencesDTO, Pageable pageable) {
+        if (pageable.isPaged() && pageable.getPageSize() > MAX_PAGE_SIZE) {
+            throw new InvalidPreferencesException("Page size cannot exceed " + MAX_PAGE_SIZE + ".");
+        }
+
         Gender gender = preferencesDTO.getGender();
         Boolean isBelow35 = preferencesDTO.getIsBelow35();
 
-        List<User> psychologists = userRepository.findPsychologistsByGender(gender);
+        if (isBelow35 == null) {
+            return userRepository.findPsychologistsByGender(gender, pageable);
+        }
+
+        LocalDate birthCutoff = LocalDate.now().minusYears(AGE_THRESHOLD);
+        return isBelow35
+                ? userRepository.findPsychologistsByGenderBornAfter(gender, birthCutoff, pageable)
+                : userRepository.findPsychologistsByGenderBornOnOrBefore(gender, birthCutoff, pageable);
+    }
+
+    // Matching psychologists ranked by their earliest free slot in the next AVAILABILITY_HORIZON_DAYS.
+    // One query: each psychologist's first working slot without a conflicting appointment, ordered by that slot
+    public List<ResponsePsychologistAvailabilityDto> searchPsychologistsBySoonestSlot(PatientPreferencesDTO preferencesDTO,
+                                                                                     int limit) {
+        if (limit < 1 || limit > MAX_RESULTS) {
+            throw new InvalidPreferencesException("Limit must be between 1 and " + MAX_RESULTS + ".");
+        }
+
+        List<LocalDateTime> slots = availabilityService.workingSlots(AVAILABILITY_HORIZON_DAYS);
+        if (slots.isEmpty()) {
+            return List.of();
+        }
+
+        LocalDate bornAfter = null;
+        LocalDate bornOnOrBefore = null;
+        if (preferencesDTO.getIsBelow35() != null) {
+            LocalDate birthCutoff = LocalDate.now().minusYears(AGE_THRESHOLD);
+            if (preferencesDTO.getIsBelow35()) {
+                bornAfter = birthCutoff;
+            } else {
+                bornOnOrBefore = birthCutoff;
+            }
+        }
+        List<String> statuses = AppointmentSlotIndex.ACTIVE_STATUSES.stream().map(Enum::name).toList();
+        String gender = preferencesDTO.getGender() == null ? null : preferencesDTO.getGender().name();
+
+        return userRepository.findPsychologistsBySoonestFreeSlot(slots.toArray(LocalDateTime[]::new), statuses,
+                        (int) AppointmentSlotIndex.BUFFER_MINUTES, gender, bornAfter, bornOnOrBefore, limit)
+                .stream()
+                .map(p -> ResponsePsychologistAvailabilityDto.builder()
+                        .userId(p.getUserId())
+                        .name(p.getName())
+                        .gender(p.getGender() == null ? null : Gender.valueOf(p.getGender()))
+                        .specialty(p.getSpecialty())
+                        .location(p.getLocation())
+                        .image(p.getImage())
+                        .earliestFreeSlot(p.getEarliestFreeSlot())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    // Composable discovery search with keyset pagination on (sort field, userId)
+    public ResponsePsychologistPageDto discoverPsychologists(PsychologistSearchDTO searchDTO) {
+        int size = searchDTO.getSize() == null ? DEFAULT_PAGE_SIZE : searchDTO.getSize();
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new InvalidPreferencesException("Page size must be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+        String sortBy = searchDTO.getSortBy() == null ? "name" : searchDTO.getSortBy();
+        if (!PsychologistSpecifications.SORT_FIELDS.contains(sortBy)) {
+            throw new InvalidPreferencesException("Sort field must be one of " + PsychologistSpecifications.SORT_FIELDS + ".");
+        }
+        if ((searchDTO.getMinAge() != null && (searchDTO.getMinAge() < 0 || searchDTO.getMinAge() > MAX_AGE))
+                || (searchDTO.getMaxAge() != null && (searchDTO.getMaxAge() < 0 || searchDTO.getMaxAge() > MAX_AGE))) {
+            throw new InvalidPreferencesException("Ages must be between 0 and " + MAX_AGE + ".");
+        }
+        if (searchDTO.getMinAge() != null && searchDTO.getMaxAge() != null
+                && searchDTO.getMinAge() > searchDTO.getMaxAge()) {
+            throw new InvalidPreferencesException("Minimum age cannot be greater than maximum age.");
+        }
+
+        Specification<User> spec = PsychologistSpecifications.isPsychologist();
+        if (searchDTO.getGender() != null) {
+            spec = spec.and(PsychologistSpecifications.hasGender(searchDTO.getGender()));
+        }
+        if (searchDTO.getMinAge() != null) {
+            spec = spec.and(PsychologistSpecifications.minAge(searchDTO.getMinAge()));
+        }
+        if (searchDTO.getMaxAge() != null) {
+            spec = spec.and(PsychologistSpecifications.maxAge(searchDTO.getMaxAge()));
+        }
+        if (searchDTO.getSpecialty() != null && !searchDTO.getSpecialty().isBlank()) {
+            spec = spec.and(PsychologistSpecifications.specialtyStartsWith(searchDTO.getSpecialty()));
+        }
+        if (searchDTO.getLocation() != null && !searchDTO.getLocation().isBlank()) {
+            spec = spec.and(PsychologistSpecifications.locationStartsWith(searchDTO.getLocation()));
+        }
+        if (searchDTO.getAvailability() != null) {
+            spec = spec.and(PsychologistSpecifications.hasAvailability(searchDTO.getAvailability()));
+        }
+
+        PsychologistCursor position = searchDTO.getCursor() == null || searchDTO.getCursor().isBlank()
+                ? null
+                : PsychologistCursor.decode(searchDTO.getCursor());
+
+        // One extra row tells whether there is a next page. Rows with a sort value come first; once they run out
+        // the page is completed with the rows without one, in userId order.
+        List<User> psychologists = new ArrayList<>();
+        if (position == null || position.sortValue() != null) {
+            Specification<User> withValue = spec.and(PsychologistSpecifications.sortValueAfter(sortBy,
+                    position == null ? null : position.sortValue(),
+                    position == null ? null : position.userId()));
+            psychologists.addAll(userRepository.findBy(withValue,
+                    query -> query.sortBy(Sort.by(sortBy, "userId")).limit(size + 1).all()));
+        }
+        if (psychologists.size() <= size) {
+            int remaining = size + 1 - psychologists.size();
+            Specification<User> withoutValue = spec.and(PsychologistSpecifications.sortValueMissingAfter(sortBy,
+                    position != null && position.sortValue() == null ? position.userId() : null));
+            psychologists.addAll(userRepository.findBy(withoutValue,
+                    query -> query.sortBy(Sort.by("userId")).limit(remaining).all()));
+        }
+
+        String nextCursor = null;
+        if (psychologists.size() > size) {
+            psychologists = psychologists.subList(0, size);
+            User last = psychologists.get(size - 1);
+            nextCursor = new PsychologistCursor(
+                    PsychologistSpecifications.sortValue(last, sortBy), last.getUserId()).encode();
+        }
 
-        return psychologists.stream()
-                .filter(p -> (isBelow35 == null
-                || (isBelow35 && p.getAge() < 35)
-                || (!isBelow35 && p.getAge() >= 35)))
+        List<ResponsePsychologistDto> content = psychologists.stream()
+                .map(p -> ResponsePsychologistDto.builder()
+                        .userId(p.getUserId())
+                        .name(p.getName())
+                        .gender(p.getGender())
+                        .age(p.getAge())
+                        .specialty(p.getSpecialty())
+                        .location(p.getLocation())
+                        .image(p.getImage())
+                        .availability(p.getAvailability())
+                        .build())
                 .collect(Collectors.toList());
+
+        return ResponsePsychologistPageDto.builder()
+                .content(content)
+                .size(content.size())
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    // Ranked full-text search over specialty, location and information, keyset-paged on (rank, userId)
+    public ResponsePsychologistTextSearchPageDto searchPsychologistsByText(String query, String cursor, int size) {
+        if (query == null || query.isBlank()) {
+            throw new InvalidPreferencesException("Search text is required.");
+        }
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new InvalidPreferencesException("Page size must be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+
+        // One extra row tells whether there is a next page
+        List<PsychologistTextSearchView> results;
+        if (cursor == null || cursor.isBlank()) {
+            results = userRepository.searchPsychologistsByText(query.trim(), size + 1);
+        } else {
+            PsychologistCursor position = PsychologistCursor.decode(cursor);
+            results = userRepository.searchPsychologistsByTextAfter(
+                    query.trim(), parseRank(position), position.userId(), size + 1);
+        }
+
+        String nextCursor = null;
+        if (results.size() > size) {
+            results = results.subList(0, size);
+            PsychologistTextSearchView last = results.get(size - 1);
+            nextCursor = new PsychologistCursor(Float.toString(last.getRank()), last.getUserId()).encode();
+        }
+
+        return ResponsePsychologistTextSearchPageDto.builder()
+                .content(results)
+                .size(results.size())
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private static float parseRank(PsychologistCursor position) {
+        try {
+            return Float.parseFloat(position.sortValue());
+        } catch (NullPointerException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid pagination cursor");
+        }
     }
 }
@@ -0,0 +1,7 @@
+package com.mindup.core.services;
+
+import com.mindup.core.enums.ProfileMedia;
+
+// Published when a profile image or video URL is saved with PENDING_VERIFICATION
+public record ProfileMediaChangedEvent(String userId, ProfileMedia media, String url) {
+}
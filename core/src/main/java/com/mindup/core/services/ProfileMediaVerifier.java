@@ -0,0 +1,258 @@
+package com.mindup.core.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mindup.core.entities.User;
+import com.mindup.core.enums.MediaVerificationStatus;
+import com.mindup.core.enums.ProfileMedia;
+import com.mindup.core.repositories.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.UncheckedIOException;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+// Checks profile media URLs off the request thread. Saved URLs start as PENDING_VERIFICATION,
+// a non-blocking HEAD request then marks them VERIFIED or clears them as REJECTED.
+// Only a 4xx, a wrong content type or a blocked address rejects; transport errors and 5xx are retried
+// with backoff and leave the URL pending when the attempts run out.
+// Verdicts are kept in a bounded cache so a known URL is accepted or refused immediately.
+@Slf4j
+@Service
+public class ProfileMediaVerifier {
+
+    private enum Outcome { ACCEPTED, REJECTED, RETRY }
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final UserProfileCache userProfileCache;
+    private final Duration timeout;
+    private final HttpClient httpClient;
+    private final Cache<String, Boolean> verdicts;
+    private final boolean allowPrivateAddresses;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final int maxRedirects;
+    private final Executor resolverExecutor;
+
+    public ProfileMediaVerifier(UserRepository userRepository,
+                                TransactionTemplate transactionTemplate,
+                                UserProfileCache userProfileCache,
+                                @Value("${media.verification.timeout}") Duration timeout,
+                                @Value("${media.verification.verdict-cache-spec}") String verdictCacheSpec,
+                                @Value("${media.verification.allow-private-addresses}") boolean allowPrivateAddresses,
+                                @Value("${media.verification.max-attempts}") int maxAttempts,
+                                @Value("${media.verification.retry-backoff}") Duration retryBackoff,
+                                @Value("${media.verification.max-redirects}") int maxRedirects,
+                                @Qualifier("mediaVerificationExecutor") Executor resolverExecutor) {
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.userProfileCache = userProfileCache;
+        this.timeout = timeout;
+        // Redirects are followed by hand so every hop goes through the address check
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(timeout)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+        this.verdicts = Caffeine.from(verdictCacheSpec).build();
+        this.allowPrivateAddresses = allowPrivateAddresses;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
+        this.maxRedirects = maxRedirects;
+        this.resolverExecutor = resolverExecutor;
+    }
+
+    // Known verdict for the URL, PENDING_VERIFICATION when it has not been checked recently
+    public MediaVerificationStatus knownStatus(ProfileMedia media, String url) {
+        Boolean accepted = verdicts.getIfPresent(verdictKey(media, url));
+        if (accepted == null) {
+            return MediaVerificationStatus.PENDING_VERIFICATION;
+        }
+        return accepted ? MediaVerificationStatus.VERIFIED : MediaVerificationStatus.REJECTED;
+    }
+
+    // Runs after the update commits so the verdict is applied to the saved row
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProfileMediaChanged(ProfileMediaChangedEvent event) {
+        verify(event);
+    }
+
+    // Completes with the status left on the URL: VERIFIED, REJECTED, or PENDING_VERIFICATION when every attempt failed
+    CompletableFuture<MediaVerificationStatus> verify(ProfileMediaChangedEvent event) {
+        URI uri;
+        try {
+            uri = URI.create(event.url());
+        } catch (IllegalArgumentException e) {
+            applyVerdict(event, false);
+            return CompletableFuture.completedFuture(MediaVerificationStatus.REJECTED);
+        }
+        return attempt(event, uri, 1);
+    }
+
+    private CompletableFuture<MediaVerificationStatus> attempt(ProfileMediaChangedEvent event, URI uri, int attempt) {
+        return check(event.media(), uri, maxRedirects)
+                .exceptionally(e -> Outcome.RETRY)
+                .thenCompose(outcome -> {
+                    if (outcome != Outcome.RETRY) {
+                        boolean accepted = outcome == Outcome.ACCEPTED;
+                        verdicts.put(verdictKey(event.media(), event.url()), accepted);
+                        applyVerdict(event, accepted);
+                        return CompletableFuture.completedFuture(
+                                accepted ? MediaVerificationStatus.VERIFIED : MediaVerificationStatus.REJECTED);
+                    }
+                    if (attempt >= maxAttempts) {
+                        log.warn("Media verification for user {} gave up after {} attempts, URL stays pending",
+                                event.userId(), attempt);
+                        return CompletableFuture.completedFuture(MediaVerificationStatus.PENDING_VERIFICATION);
+                    }
+                    // Exponential backoff: retryBackoff, 2 * retryBackoff, ...
+                    Executor delayed = CompletableFuture.delayedExecutor(
+                            retryBackoff.toMillis() << (attempt - 1), TimeUnit.MILLISECONDS);
+                    return CompletableFuture.supplyAsync(() -> uri, delayed)
+                            .thenCompose(sameUri -> attempt(event, sameUri, attempt + 1));
+                });
+    }
+
+    // One HEAD request, following up to redirectsLeft redirects; every hop must resolve to a public address
+    private CompletableFuture<Outcome> check(ProfileMedia media, URI uri, int redirectsLeft) {
+        CompletableFuture<Boolean> allowedTarget;
+        try {
+            allowedTarget = CompletableFuture.supplyAsync(() -> isAllowedTarget(uri), resolverExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return allowedTarget
+                .thenCompose(allowed -> {
+                    if (!allowed) {
+                        log.warn("Media URL {} points to a blocked address", uri);
+                        return CompletableFuture.completedFuture(Outcome.REJECTED);
+                    }
+                    HttpRequest request = HttpRequest.newBuilder(uri)
+                            .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                            .timeout(timeout)
+                            .build();
+                    return httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                            .thenCompose(response -> {
+                                int status = response.statusCode();
+                                if (status >= 300 && status < 400) {
+                                    Optional<String> location = response.headers().firstValue("Location");
+                                    if (location.isEmpty() || redirectsLeft == 0) {
+                                        return CompletableFuture.completedFuture(Outcome.REJECTED);
+                                    }
+                                    URI next;
+                                    try {
+                                        next = uri.resolve(location.get());
+                                    } catch (IllegalArgumentException e) {
+                                        return CompletableFuture.completedFuture(Outcome.REJECTED);
+                                    }
+                                    return check(media, next, redirectsLeft - 1);
+                                }
+                                return CompletableFuture.completedFuture(outcomeOf(media, response));
+                            });
+                });
+    }
+
+    // Resolves the host; an unresolvable host is a transport error and is retried
+    private boolean isAllowedTarget(URI uri) {
+        if (!"https".equalsIgnoreCase(uri.getScheme()) && !"http".equalsIgnoreCase(uri.getScheme())) {
+            return false;
+        }
+        if (uri.getHost() == null) {
+            return false;
+        }
+        if (allowPrivateAddresses) {
+            return true;
+        }
+        try {
+            for (InetAddress address : InetAddress.getAllByName(uri.getHost())) {
+                if (isPrivate(address)) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (UnknownHostException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean isPrivate(InetAddress address) {
+        return address.isLoopbackAddress()
+                || address.isSiteLocalAddress()
+                || address.isLinkLocalAddress()
+                || address.isAnyLocalAddress()
+                || address.isMulticastAddress()
+                // IPv6 unique local addresses (fc00::/7), which isSiteLocalAddress does not cover
+                || (address instanceof Inet6Address && (address.getAddress()[0] & 0xfe) == 0xfc);
+    }
+
+    private static Outcome outcomeOf(ProfileMedia media, HttpResponse<?> response) {
+        int status = response.statusCode();
+        if (status >= 500 || status == 429) {
+            return Outcome.RETRY;
+        }
+        if (status != 200) {
+            return Outcome.REJECTED;
+        }
+        if (media == ProfileMedia.IMAGE) {
+            boolean image = response.headers().firstValue("Content-Type")
+                    .map(contentType -> contentType.startsWith("image/"))
+                    .orElse(false);
+            return image ? Outcome.ACCEPTED : Outcome.REJECTED;
+        }
+        return Outcome.ACCEPTED;
+    }
+
+    private void applyVerdict(ProfileMediaChangedEvent event, boolean accepted) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> userRepository.findById(event.userId())
+                    .ifPresent(user -> applyVerdict(user, event, accepted)));
+            userProfileCache.evict(event.userId());
+        } catch (RuntimeException e) {
+            log.warn("Could not store media verification for user {}", event.userId(), e);
+        }
+    }
+
+    // Only the URL that was checked is updated; a newer upload keeps its own pending status
+    private void applyVerdict(User user, ProfileMediaChangedEvent event, boolean accepted) {
+        MediaVerificationStatus status = accepted ? MediaVerificationStatus.VERIFIED : MediaVerificationStatus.REJECTED;
+        if (event.media() == ProfileMedia.IMAGE) {
+            if (!Objects.equals(user.getImage(), event.url())) {
+                return;
+            }
+            user.setImageStatus(status);
+            if (!accepted) {
+                user.setImage(null);
+            }
+        } else {
+            if (!Objects.equals(user.getVideo(), event.url())) {
+                return;
+            }
+            user.setVideoStatus(status);
+            if (!accepted) {
+                user.setVideo(null);
+            }
+        }
+        userRepository.save(user);
+    }
+
+    private static String verdictKey(ProfileMedia media, String url) {
+        return media + "|" + url;
+    }
+}
@@ -0,0 +1,5 @@
+package com.mindup.core.services;
+
+// Content-addressed upload: hash is the hex SHA-256 of the original bytes
+public record StoredMedia(String hash, String contentType) {
+}
@@ -0,0 +1,36 @@
+package com.mindup.core.services;
+
+import com.mindup.core.config.CacheConfig;
+import com.mindup.core.dtos.User.UserProfileDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+// Invalidation entry point for the profile cache filled by UserService.findUserById.
+// Every path that changes a field of UserProfileDTO must call evict.
+@Service
+@RequiredArgsConstructor
+public class UserProfileCache {
+
+    private final CacheManager cacheManager;
+
+    public UserProfileDTO get(String userId) {
+        Cache cache = cacheManager.getCache(CacheConfig.USER_PROFILES);
+        return cache == null ? null : cache.get(userId, UserProfileDTO.class);
+    }
+
+    public void put(String userId, UserProfileDTO profile) {
+        Cache cache = cacheManager.getCache(CacheConfig.USER_PROFILES);
+        if (cache != null && profile != null) {
+            cache.put(userId, profile);
+        }
+    }
+
+    public void evict(String userId) {
+        Cache cache = cacheManager.getCache(CacheConfig.USER_PROFILES);
+        if (cache != null && userId != null) {
+            cache.evict(userId);
+        }
+    }
+}
@@ -2,8 +2,10 @@ package com.mindup.core.services;
 
 import com.mindup.core.dtos.User.*;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserService {
@@ -14,9 +16,11 @@ public interface UserService {
 
     Optional<UserProfileDTO> findUserById(String userId);
 
+    ResponseUserProfileBatchDto findUserProfilesByIds(List<String> userIds, String requesterId, String requesterRole);
+
     void changePassword(String userId, String currentPassword, String newPassword);
 
-    ResponseLoginDto authenticateUser(String email, String password);
+    LoginResultDto authenticateUser(String email, String password);
 
     void updateUser(UserDTO userDTO);
 
@@ -24,6 +28,8 @@ public interface UserService {
 
     void updateProfileImage(String userId, ProfileImageDTO profileImageDTO);
 
+    ResponseProfileImageUploadDto uploadProfileImage(String userId, MultipartFile file);
+
     UserDTO toggleAvailability(String id) throws IOException;
 
     void deleteProfileImage(String userId);
@@ -0,0 +1,32 @@
+package com.mindup.core.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+// Opaque keyset position (appointment_date, id) used to page through appointment listings
+public record AppointmentCursor(LocalDateTime date, String id) {
+
+    private static final String SEPARATOR = "|";
+
+    public String encode() {
+        String raw = date + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static AppointmentCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separatorIndex = raw.indexOf(SEPARATOR);
+            if (separatorIndex <= 0 || separatorIndex == raw.length() - 1) {
+                throw new IllegalArgumentException("Invalid pagination cursor");
+            }
+            return new AppointmentCursor(
+                    LocalDateTime.parse(raw.substring(0, separatorIndex)),
+                    raw.substring(separatorIndex + 1));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid pagination cursor");
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.mindup.core.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Opaque keyset position (sort value, userId) used to page through psychologist searches.
+// The sort value may be null (rows without one are paged last), so it carries a marker of its own.
+public record PsychologistCursor(String sortValue, String userId) {
+
+    private static final String SEPARATOR = "|";
+    private static final char NULL_VALUE = 'n';
+    private static final char VALUE = 'v';
+
+    public String encode() {
+        String raw = (sortValue == null ? String.valueOf(NULL_VALUE) : VALUE + sortValue) + SEPARATOR + userId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PsychologistCursor decode(String cursor) {
+        String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        // The user id never contains the separator, the sort value might
+        int separatorIndex = raw.lastIndexOf(SEPARATOR);
+        if (separatorIndex < 1 || separatorIndex == raw.length() - 1
+                || (raw.charAt(0) != VALUE && raw.charAt(0) != NULL_VALUE)
+                || (raw.charAt(0) == NULL_VALUE && separatorIndex != 1)) {
+            throw new IllegalArgumentException("Invalid pagination cursor");
+        }
+        String sortValue = raw.charAt(0) == NULL_VALUE ? null : raw.substring(1, separatorIndex);
+        return new PsychologistCursor(sortValue, raw.substring(separatorIndex + 1));
+    }
+}
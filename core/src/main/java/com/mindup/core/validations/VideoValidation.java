@@ -3,10 +3,6 @@ package com.mindup.core.validations;
 import com.mindup.core.exceptions.VideoValidationException;
 import org.apache.commons.validator.routines.UrlValidator;
 
-import java.io.IOException;
-import java.net.HttpURLConnection;
-import java.net.URL;
-
 public class VideoValidation {
 
     private static final String[] SUPPORTED_SCHEMES = {"http", "https"};
@@ -33,20 +29,6 @@ public class VideoValidation {
         else {
             System.out.println("This is a valid video URL, but it is not from YouTube or Google Drive.");
         }
-
-        try {
-            HttpURLConnection connection = (HttpURLConnection) new URL(videoUrl).openConnection();
-            connection.setRequestMethod("HEAD");
-            connection.setConnectTimeout(5000);
-            connection.setReadTimeout(5000);
-
-            int responseCode = connection.getResponseCode();
-            if (responseCode != HttpURLConnection.HTTP_OK) {
-                throw new VideoValidationException("Video URL is not accessible. Response code: " + responseCode);
-            }
-
-        } catch (IOException e) {
-            throw new VideoValidationException("Unable to connect to the video URL: " + videoUrl);
-        }
+        // Reachability is checked asynchronously by ProfileMediaVerifier
     }
 }
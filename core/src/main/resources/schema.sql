@@ -0,0 +1,43 @@
+-- Objects Hibernate cannot declare through annotations; runs after ddl-auto (see application.properties)
+-- PhysicalNamingStrategyStandardImpl keeps field names as column names, so User.userId is the column userid
+
+-- Psychologist search by gender and birth date bound (PatientService.searchPsychologists)
+CREATE INDEX IF NOT EXISTS idx_users_psychologist_gender_birth
+    ON mindupdbschema.users (gender, birth)
+    WHERE role = 'PSYCHOLOGIST';
+
+-- Psychologist discovery (PsychologistSpecifications): prefix filters and default name ordering
+CREATE INDEX IF NOT EXISTS idx_users_psychologist_specialty
+    ON mindupdbschema.users (lower(specialty) text_pattern_ops)
+    WHERE role = 'PSYCHOLOGIST';
+
+CREATE INDEX IF NOT EXISTS idx_users_psychologist_location
+    ON mindupdbschema.users (lower(location) text_pattern_ops)
+    WHERE role = 'PSYCHOLOGIST';
+
+CREATE INDEX IF NOT EXISTS idx_users_psychologist_name
+    ON mindupdbschema.users (name, userid)
+    WHERE role = 'PSYCHOLOGIST';
+
+-- Keyset ordering by specialty/location (PsychologistSpecifications.sortValueAfter); NULLs sort last, as paged
+CREATE INDEX IF NOT EXISTS idx_users_psychologist_specialty_order
+    ON mindupdbschema.users (specialty, userid)
+    WHERE role = 'PSYCHOLOGIST';
+
+CREATE INDEX IF NOT EXISTS idx_users_psychologist_location_order
+    ON mindupdbschema.users (location, userid)
+    WHERE role = 'PSYCHOLOGIST';
+
+-- Full-text search over psychologist profiles (UserRepository.searchPsychologistsByText).
+-- 'simple' keeps the vector language-neutral since profiles are written in more than one language.
+ALTER TABLE mindupdbschema.users
+    ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple', coalesce(specialty, '')), 'A') ||
+        setweight(to_tsvector('simple', coalesce(location, '')), 'B') ||
+        setweight(to_tsvector('simple', coalesce(information, '')), 'C')
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_users_psychologist_search_vector
+    ON mindupdbschema.users USING GIN (search_vector)
+    WHERE role = 'PSYCHOLOGIST';
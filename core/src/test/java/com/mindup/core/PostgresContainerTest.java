@@ -0,0 +1,41 @@
+package com.mindup.core;
+
+import com.mindup.core.entities.User;
+import com.mindup.core.enums.Gender;
+import com.mindup.core.enums.Role;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.UUID;
+
+// Base for tests that need the real database: native queries, advisory locks and schema.sql only run on Postgres.
+// One container is shared by every test class (and cached Spring context); tests are skipped without Docker.
+@Testcontainers(disabledWithoutDocker = true)
+public abstract class PostgresContainerTest {
+
+    @ServiceConnection
+    protected static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    static {
+        POSTGRES.start();
+    }
+
+    @DynamicPropertySource
+    static void schemaProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+        registry.add("spring.jpa.properties.hibernate.hbm2ddl.create_namespaces", () -> "true");
+    }
+
+    protected static User newUser(Role role, String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(UUID.randomUUID() + "@mindup.test");
+        user.setPassword("not-a-real-hash");
+        user.setRole(role);
+        user.setGender(Gender.FEMALE);
+        return user;
+    }
+}
@@ -0,0 +1,55 @@
+package com.mindup.core.security;
+
+import com.mindup.core.exceptions.TokenExpiredException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtServiceTest {
+
+    private static final String SECRET = Base64.getEncoder().encodeToString(new byte[32]);
+    private static final String OTHER_SECRET = Base64.getEncoder().encodeToString("another-secret-of-32-bytes-long!".getBytes());
+
+    private final JwtService jwtService = new JwtService(SECRET, 60_000);
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void tokenIsValidOnlyForItsOwnEmail() {
+        String token = jwtService.generateToken("ana@mindup.com", "user-1", "Ana", null, "PATIENT");
+
+        assertThat(jwtService.isTokenValid(token, "ana@mindup.com")).isTrue();
+        assertThat(jwtService.isTokenValid(token, "someone@mindup.com")).isFalse();
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        String token = new JwtService(SECRET, -1_000).generateToken("ana@mindup.com", "user-1", "Ana", null, "PATIENT");
+
+        assertThatThrownBy(() -> jwtService.isTokenValid(token, "ana@mindup.com"))
+                .isInstanceOf(TokenExpiredException.class);
+    }
+
+    @Test
+    void gatewayVerifiedIdentityIsUsedWithoutParsingTheToken() {
+        // Signed with another key: parsing it here would fail, so a true result means it was not parsed
+        String token = new JwtService(OTHER_SECRET, 60_000).generateToken("ana@mindup.com", "user-1", "Ana", null, "PATIENT");
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token);
+        request.setAttribute(AuthenticatedUser.REQUEST_ATTRIBUTE, new AuthenticatedUser("user-1", "PATIENT", "ana@mindup.com"));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        assertThat(jwtService.isTokenValid(token, "ana@mindup.com")).isTrue();
+        assertThat(jwtService.isTokenValid(token, "someone@mindup.com")).isFalse();
+    }
+}
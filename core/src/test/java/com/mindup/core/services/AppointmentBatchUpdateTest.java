@@ -0,0 +1,135 @@
+package com.mindup.core.services;
+
+import com.mindup.core.PostgresContainerTest;
+import com.mindup.core.dtos.Appointment.RequestBatchAppointmentDto;
+import com.mindup.core.dtos.Appointment.RequestBatchAppointmentItemDto;
+import com.mindup.core.dtos.Appointment.RequestCreateAppointmentDto;
+import com.mindup.core.dtos.Appointment.ResponseBatchAppointmentItemDto;
+import com.mindup.core.entities.User;
+import com.mindup.core.enums.AppointmentBatchAction;
+import com.mindup.core.enums.AppointmentStatus;
+import com.mindup.core.enums.Role;
+import com.mindup.core.mappers.AppointmentMapperImpl;
+import com.mindup.core.repositories.IAppointmentRepository;
+import com.mindup.core.repositories.UserRepository;
+import com.mindup.core.services.IMPL.AppointmentServiceImpl;
+import com.mindup.core.validations.UserValidation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({AppointmentServiceImpl.class, AppointmentMapperImpl.class, UserValidation.class,
+        AppointmentSlotIndex.class, AppointmentBookingLock.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AppointmentBatchUpdateTest extends PostgresContainerTest {
+
+    private static final LocalDateTime SLOT = LocalDate.now().plusDays(1).atTime(10, 0);
+
+    @Autowired
+    private AppointmentServiceImpl appointmentService;
+
+    @Autowired
+    private IAppointmentRepository appointmentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @MockBean
+    private UserProfileCache userProfileCache;
+
+    private User psychologist;
+    private String firstId;
+    private String secondId;
+
+    @BeforeEach
+    void setUp() {
+        psychologist = userRepository.save(newUser(Role.PSYCHOLOGIST, "Psychologist"));
+        User patient = userRepository.save(newUser(Role.PATIENT, "Patient"));
+        User otherPatient = userRepository.save(newUser(Role.PATIENT, "Other patient"));
+        firstId = appointmentService.add(new RequestCreateAppointmentDto(
+                patient.getUserId(), psychologist.getUserId(), SLOT)).id();
+        secondId = appointmentService.add(new RequestCreateAppointmentDto(
+                otherPatient.getUserId(), psychologist.getUserId(), SLOT.plusHours(2))).id();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        appointmentRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void itemsWithoutIdOrActionAreRejectedByBeanValidation() {
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+        RequestBatchAppointmentDto request = new RequestBatchAppointmentDto(Arrays.asList(
+                new RequestBatchAppointmentItemDto(firstId, null, null),
+                new RequestBatchAppointmentItemDto(null, AppointmentBatchAction.CANCEL, null),
+                null));
+
+        assertThat(validator.validate(request)).hasSize(3);
+    }
+
+    @Test
+    void invalidItemRejectsTheWholeBatchBeforeWriting() {
+        RequestBatchAppointmentDto nullAction = new RequestBatchAppointmentDto(List.of(
+                new RequestBatchAppointmentItemDto(firstId, AppointmentBatchAction.CANCEL, null),
+                new RequestBatchAppointmentItemDto(secondId, null, null)));
+        RequestBatchAppointmentDto duplicateIds = new RequestBatchAppointmentDto(List.of(
+                new RequestBatchAppointmentItemDto(firstId, AppointmentBatchAction.CONFIRM, null),
+                new RequestBatchAppointmentItemDto(firstId, AppointmentBatchAction.CANCEL, null)));
+        RequestBatchAppointmentDto rescheduleWithoutDate = new RequestBatchAppointmentDto(List.of(
+                new RequestBatchAppointmentItemDto(firstId, AppointmentBatchAction.CANCEL, null),
+                new RequestBatchAppointmentItemDto(secondId, AppointmentBatchAction.RESCHEDULE, null)));
+
+        assertThatThrownBy(() -> appointmentService.batchUpdate(nullAction)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> appointmentService.batchUpdate(duplicateIds)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> appointmentService.batchUpdate(rescheduleWithoutDate)).isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(appointmentRepository.findAll())
+                .allMatch(appointment -> appointment.getStatus() == AppointmentStatus.PENDING);
+    }
+
+    @Test
+    void appliesEveryActionAndReportsFailuresPerItem() {
+        LocalDateTime newDate = SLOT.plusDays(1);
+        List<ResponseBatchAppointmentItemDto> results = appointmentService.batchUpdate(new RequestBatchAppointmentDto(List.of(
+                new RequestBatchAppointmentItemDto(firstId, AppointmentBatchAction.CONFIRM, null),
+                new RequestBatchAppointmentItemDto(secondId, AppointmentBatchAction.RESCHEDULE, newDate),
+                new RequestBatchAppointmentItemDto("missing", AppointmentBatchAction.CANCEL, null))));
+
+        assertThat(results).extracting(ResponseBatchAppointmentItemDto::success).containsExactly(true, true, false);
+        assertThat(appointmentRepository.findById(firstId).orElseThrow().getStatus()).isEqualTo(AppointmentStatus.ACCEPTED);
+        assertThat(appointmentRepository.findById(secondId).orElseThrow().getDate()).isEqualTo(newDate);
+    }
+
+    @Test
+    void rescheduleOntoATakenSlotFailsWithoutAffectingTheOtherItems() {
+        List<ResponseBatchAppointmentItemDto> results = appointmentService.batchUpdate(new RequestBatchAppointmentDto(List.of(
+                new RequestBatchAppointmentItemDto(secondId, AppointmentBatchAction.RESCHEDULE, SLOT.plusMinutes(15)),
+                new RequestBatchAppointmentItemDto(firstId, AppointmentBatchAction.CANCEL, null))));
+
+        assertThat(results).extracting(ResponseBatchAppointmentItemDto::success).containsExactly(false, true);
+        assertThat(appointmentRepository.findById(secondId).orElseThrow().getDate()).isEqualTo(SLOT.plusHours(2));
+        assertThat(appointmentRepository.findById(firstId).orElseThrow().getStatus()).isEqualTo(AppointmentStatus.CANCELED);
+    }
+}
@@ -0,0 +1,241 @@
+package com.mindup.core.services;
+
+import com.mindup.core.PostgresContainerTest;
+import com.mindup.core.dtos.Appointment.RequestCreateAppointmentDto;
+import com.mindup.core.dtos.Appointment.ResponseCreateAppointmentDto;
+import com.mindup.core.entities.AppointmentEntity;
+import com.mindup.core.entities.User;
+import com.mindup.core.enums.AppointmentStatus;
+import com.mindup.core.enums.Role;
+import com.mindup.core.exceptions.AppointmentConflictException;
+import com.mindup.core.mappers.AppointmentMapperImpl;
+import com.mindup.core.repositories.IAppointmentRepository;
+import com.mindup.core.repositories.UserRepository;
+import com.mindup.core.services.IMPL.AppointmentServiceImpl;
+import com.mindup.core.validations.UserValidation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Bookings commit in their own transactions here, so the test itself must not run in one
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({AppointmentServiceImpl.class, AppointmentMapperImpl.class, UserValidation.class,
+        AppointmentSlotIndex.class, AppointmentBookingLock.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AppointmentBookingConcurrencyTest extends PostgresContainerTest {
+
+    private static final int THREADS = 32;
+    private static final int BOOKINGS = 2000;
+    private static final LocalDateTime FIRST_SLOT = LocalDate.now().plusDays(1).atTime(9, 0);
+
+    @Autowired
+    private AppointmentServiceImpl appointmentService;
+
+    @Autowired
+    private AppointmentSlotIndex appointmentSlotIndex;
+
+    @Autowired
+    private AppointmentBookingLock appointmentBookingLock;
+
+    @Autowired
+    private IAppointmentRepository appointmentRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @MockBean
+    private UserProfileCache userProfileCache;
+
+    @AfterEach
+    void cleanUp() {
+        appointmentRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void concurrentBookingsNeverOverlap() throws Exception {
+        List<User> psychologists = saveUsers(Role.PSYCHOLOGIST, 4);
+        List<User> patients = saveUsers(Role.PATIENT, 200);
+
+        AtomicInteger conflicts = new AtomicInteger();
+        List<Callable<ResponseCreateAppointmentDto>> bookings = new ArrayList<>();
+        for (int i = 0; i < BOOKINGS; i++) {
+            bookings.add(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                // Few psychologists, days and 10 minute steps: most attempts collide with another one
+                LocalDateTime date = FIRST_SLOT.plusDays(random.nextInt(3)).plusMinutes(10L * random.nextInt(24));
+                try {
+                    return appointmentService.add(new RequestCreateAppointmentDto(
+                            patients.get(random.nextInt(patients.size())).getUserId(),
+                            psychologists.get(random.nextInt(psychologists.size())).getUserId(),
+                            date));
+                } catch (AppointmentConflictException e) {
+                    conflicts.incrementAndGet();
+                    return null;
+                }
+            });
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<ResponseCreateAppointmentDto>> results;
+        try {
+            results = executor.invokeAll(bookings);
+        } finally {
+            executor.shutdown();
+            assertThat(executor.awaitTermination(2, TimeUnit.MINUTES)).isTrue();
+        }
+        int created = 0;
+        for (Future<ResponseCreateAppointmentDto> result : results) {
+            // get() rethrows anything other than a conflict, which fails the test
+            if (result.get() != null) {
+                created++;
+            }
+        }
+
+        List<AppointmentEntity> appointments = appointmentRepository.findAll();
+        assertThat(created + conflicts.get()).isEqualTo(BOOKINGS);
+        assertThat(appointments).hasSize(created);
+        assertThat(conflicts.get()).isPositive();
+        assertNoPsychologistOverlaps(appointments);
+        assertOneAppointmentPerPatientAndDay(appointments);
+    }
+
+    @Test
+    void staleIndexDoesNotRejectAFreeSlot() {
+        User psychologist = userRepository.save(newUser(Role.PSYCHOLOGIST, "Psychologist"));
+        User patient = userRepository.save(newUser(Role.PATIENT, "Patient"));
+        User otherPatient = userRepository.save(newUser(Role.PATIENT, "Other patient"));
+
+        appointmentService.add(new RequestCreateAppointmentDto(patient.getUserId(), psychologist.getUserId(), FIRST_SLOT));
+        assertThat(appointmentSlotIndex.hasConflict(psychologist.getUserId(), FIRST_SLOT, null)).isTrue();
+
+        // Removed behind the index's back, as another replica would
+        appointmentRepository.deleteAllInBatch();
+
+        ResponseCreateAppointmentDto created = appointmentService.add(
+                new RequestCreateAppointmentDto(otherPatient.getUserId(), psychologist.getUserId(), FIRST_SLOT));
+        assertThat(created.id()).isNotNull();
+    }
+
+    @Test
+    void indexedConflictIsRejectedWithoutWaitingForTheLock() throws Exception {
+        User psychologist = userRepository.save(newUser(Role.PSYCHOLOGIST, "Psychologist"));
+        User patient = userRepository.save(newUser(Role.PATIENT, "Patient"));
+        User otherPatient = userRepository.save(newUser(Role.PATIENT, "Other patient"));
+        appointmentService.add(new RequestCreateAppointmentDto(patient.getUserId(), psychologist.getUserId(), FIRST_SLOT));
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // Another booking of the same psychologist holds the lock
+            executor.submit(() -> appointmentBookingLock.executeForParticipants(
+                    psychologist.getUserId(), patient.getUserId(), () -> {
+                        locked.countDown();
+                        try {
+                            return release.await(30, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return false;
+                        }
+                    }));
+            assertThat(locked.await(5, TimeUnit.SECONDS)).isTrue();
+
+            CompletableFuture<ResponseCreateAppointmentDto> attempt = CompletableFuture.supplyAsync(() ->
+                    appointmentService.add(new RequestCreateAppointmentDto(
+                            otherPatient.getUserId(), psychologist.getUserId(), FIRST_SLOT.plusMinutes(10))));
+
+            assertThatThrownBy(() -> attempt.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(AppointmentConflictException.class);
+        } finally {
+            release.countDown();
+            executor.shutdown();
+            assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+        }
+    }
+
+    @Test
+    void reactivatingAnAppointmentWhoseSlotWasTakenIsRejected() {
+        User psychologist = userRepository.save(newUser(Role.PSYCHOLOGIST, "Psychologist"));
+        User patient = userRepository.save(newUser(Role.PATIENT, "Patient"));
+        User otherPatient = userRepository.save(newUser(Role.PATIENT, "Other patient"));
+
+        ResponseCreateAppointmentDto canceled = appointmentService.add(
+                new RequestCreateAppointmentDto(patient.getUserId(), psychologist.getUserId(), FIRST_SLOT));
+        // cancelAppointment maps lazy participants, in production inside the open-in-view session
+        transactionTemplate.executeWithoutResult(status -> appointmentService.cancelAppointment(canceled.id()));
+        appointmentService.add(new RequestCreateAppointmentDto(otherPatient.getUserId(), psychologist.getUserId(), FIRST_SLOT));
+
+        assertThatThrownBy(() -> appointmentService.reactivateAppointment(canceled.id()))
+                .isInstanceOf(AppointmentConflictException.class);
+        assertThatThrownBy(() -> appointmentService.aceptAppointment(canceled.id()))
+                .isInstanceOf(AppointmentConflictException.class);
+        assertThat(appointmentRepository.findById(canceled.id()).orElseThrow().getStatus())
+                .isEqualTo(AppointmentStatus.CANCELED);
+    }
+
+    private List<User> saveUsers(Role role, int count) {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            users.add(newUser(role, role + " " + i));
+        }
+        return userRepository.saveAll(users);
+    }
+
+    private static void assertNoPsychologistOverlaps(List<AppointmentEntity> appointments) {
+        Map<String, List<LocalDateTime>> datesByPsychologist = appointments.stream()
+                .collect(Collectors.groupingBy(appointment -> appointment.getPsychologist().getUserId(),
+                        Collectors.mapping(AppointmentEntity::getDate, Collectors.toList())));
+
+        datesByPsychologist.values().forEach(dates -> {
+            dates.sort(Comparator.naturalOrder());
+            for (int i = 1; i < dates.size(); i++) {
+                assertThat(Duration.between(dates.get(i - 1), dates.get(i)))
+                        .isGreaterThan(Duration.ofMinutes(AppointmentSlotIndex.BUFFER_MINUTES));
+            }
+        });
+    }
+
+    private static void assertOneAppointmentPerPatientAndDay(List<AppointmentEntity> appointments) {
+        Map<String, Long> appointmentsByPatientAndDay = appointments.stream()
+                .collect(Collectors.groupingBy(
+                        appointment -> appointment.getPatient().getUserId() + "/" + appointment.getDate().toLocalDate(),
+                        Collectors.counting()));
+
+        assertThat(appointmentsByPatientAndDay.values()).allMatch(count -> count == 1);
+    }
+}
@@ -0,0 +1,112 @@
+package com.mindup.core.services;
+
+import com.mindup.core.dtos.Appointment.AppointmentSlotDto;
+import com.mindup.core.entities.AppointmentEntity;
+import com.mindup.core.entities.User;
+import com.mindup.core.enums.AppointmentStatus;
+import com.mindup.core.repositories.IAppointmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AppointmentSlotIndexTest {
+
+    private static final String PSYCHOLOGIST_ID = "psychologist-1";
+    private static final LocalDateTime START = LocalDateTime.now().plusDays(3).withHour(10).withMinute(0).withSecond(0).withNano(0);
+
+    private IAppointmentRepository appointmentRepository;
+    private AppointmentSlotIndex index;
+
+    @BeforeEach
+    void setUp() {
+        appointmentRepository = mock(IAppointmentRepository.class);
+        index = new AppointmentSlotIndex(appointmentRepository, mock(ApplicationEventPublisher.class),
+                "maximumSize=100,expireAfterWrite=5m");
+    }
+
+    @Test
+    void detectsSlotsWithinTheBufferOnly() {
+        when(appointmentRepository.findActiveSlotsByPsychologistId(eq(PSYCHOLOGIST_ID), anyList(), any()))
+                .thenReturn(List.of(new AppointmentSlotDto("a-1", START)));
+
+        assertThat(index.hasConflict(PSYCHOLOGIST_ID, START.plusMinutes(29), null)).isTrue();
+        assertThat(index.hasConflict(PSYCHOLOGIST_ID, START.minusMinutes(29), null)).isTrue();
+        assertThat(index.hasConflict(PSYCHOLOGIST_ID, START.plusMinutes(30), null)).isFalse();
+        assertThat(index.hasConflict(PSYCHOLOGIST_ID, START, "a-1")).isFalse();
+    }
+
+    @Test
+    void refreshKeepsAWarmIndexCoherent() {
+        when(appointmentRepository.findActiveSlotsByPsychologistId(eq(PSYCHOLOGIST_ID), anyList(), any()))
+                .thenReturn(List.of());
+        assertThat(index.hasConflict(PSYCHOLOGIST_ID, START, null)).isFalse();
+
+        AppointmentEntity appointment = appointment("a-1", START, AppointmentStatus.PENDING);
+        index.refresh(appointment, null);
+        assertThat(index.hasConflict(PSYCHOLOGIST_ID, START, null)).isTrue();
+
+        // Rescheduled: the old slot is freed and the new one taken
+        appointment.setDate(START.plusHours(2));
+        index.refresh(appointment, START);
+        assertThat(index.hasConflict(PSYCHOLOGIST_ID, START, null)).isFalse();
+        assertThat(index.hasConflict(PSYCHOLOGIST_ID, START.plusHours(2), null)).isTrue();
+
+        appointment.setStatus(AppointmentStatus.CANCELED);
+        index.refresh(appointment, appointment.getDate());
+        assertThat(index.hasConflict(PSYCHOLOGIST_ID, START.plusHours(2), null)).isFalse();
+
+        verify(appointmentRepository, times(1)).findActiveSlotsByPsychologistId(eq(PSYCHOLOGIST_ID), anyList(), any());
+    }
+
+    @Test
+    void refreshDuringAnInFlightLoadIsNotLost() throws Exception {
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch refreshDone = new CountDownLatch(1);
+
+        // First read is taken before the booking commits, the second one sees it
+        when(appointmentRepository.findActiveSlotsByPsychologistId(eq(PSYCHOLOGIST_ID), anyList(), any()))
+                .thenAnswer(invocation -> {
+                    loadStarted.countDown();
+                    assertThat(refreshDone.await(5, TimeUnit.SECONDS)).isTrue();
+                    return List.of();
+                })
+                .thenReturn(List.of(new AppointmentSlotDto("a-1", START)));
+
+        CompletableFuture<Boolean> lookup = CompletableFuture.supplyAsync(
+                () -> index.hasConflict(PSYCHOLOGIST_ID, START, null));
+        assertThat(loadStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        index.refresh(appointment("a-1", START, AppointmentStatus.PENDING), null);
+        refreshDone.countDown();
+
+        assertThat(lookup.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(index.slotsBetween(PSYCHOLOGIST_ID, START, START.plusMinutes(1)))
+                .containsExactly(new AppointmentSlotDto("a-1", START));
+    }
+
+    private static AppointmentEntity appointment(String id, LocalDateTime date, AppointmentStatus status) {
+        User psychologist = new User();
+        psychologist.setUserId(PSYCHOLOGIST_ID);
+        return AppointmentEntity.builder()
+                .id(id)
+                .psychologist(psychologist)
+                .date(date)
+                .status(status)
+                .build();
+    }
+}
@@ -0,0 +1,84 @@
+package com.mindup.core.services;
+
+import com.mindup.core.dtos.Appointment.AppointmentSlotDto;
+import com.mindup.core.dtos.Appointment.ResponseAvailabilityDto;
+import com.mindup.core.enums.Role;
+import com.mindup.core.exceptions.UserNotFoundException;
+import com.mindup.core.repositories.UserRepository;
+import com.mindup.core.services.IMPL.AvailabilityServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class AvailabilityServiceImplTest {
+
+    private static final String PSYCHOLOGIST_ID = "psychologist-1";
+    private static final LocalDate NEXT_MONDAY = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+
+    private AppointmentSlotIndex appointmentSlotIndex;
+    private UserRepository userRepository;
+    private AvailabilityServiceImpl availabilityService;
+
+    @BeforeEach
+    void setUp() {
+        appointmentSlotIndex = mock(AppointmentSlotIndex.class);
+        userRepository = mock(UserRepository.class);
+        availabilityService = new AvailabilityServiceImpl(appointmentSlotIndex, userRepository,
+                "maximumSize=100,expireAfterWrite=5m", "09:00", "18:00",
+                new String[]{"MONDAY", "TUESDAY", "WEDNESDAY", "THURSDAY", "FRIDAY"});
+    }
+
+    @Test
+    void unknownPsychologistIsRejectedBeforeAnythingIsCached() {
+        when(userRepository.existsByUserIdAndRole("unknown", Role.PSYCHOLOGIST)).thenReturn(false);
+
+        assertThatThrownBy(() -> availabilityService.getFreeSlots("unknown", NEXT_MONDAY, NEXT_MONDAY))
+                .isInstanceOf(UserNotFoundException.class);
+        verifyNoInteractions(appointmentSlotIndex);
+    }
+
+    @Test
+    void rangesTooLongOrTooFarAheadAreRejected() {
+        assertThatThrownBy(() -> availabilityService.getFreeSlots(PSYCHOLOGIST_ID, NEXT_MONDAY, NEXT_MONDAY.plusDays(31)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> availabilityService.getFreeSlots(PSYCHOLOGIST_ID,
+                LocalDate.now().plusYears(5), LocalDate.now().plusYears(5).plusDays(1)))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(userRepository, appointmentSlotIndex);
+    }
+
+    @Test
+    void busySlotsAreRemovedAndMasksAreReused() {
+        when(userRepository.existsByUserIdAndRole(PSYCHOLOGIST_ID, Role.PSYCHOLOGIST)).thenReturn(true);
+        when(appointmentSlotIndex.slotsBetween(anyString(), any(), any())).thenReturn(new ConcurrentSkipListSet<>(
+                List.of(new AppointmentSlotDto("a-1", NEXT_MONDAY.atTime(10, 0)))));
+
+        List<ResponseAvailabilityDto> first = availabilityService.getFreeSlots(PSYCHOLOGIST_ID, NEXT_MONDAY, NEXT_MONDAY);
+        List<ResponseAvailabilityDto> second = availabilityService.getFreeSlots(PSYCHOLOGIST_ID, NEXT_MONDAY, NEXT_MONDAY);
+
+        // 09:00-18:00 is 18 slots; with a 29 minute buffer the 10:00 appointment only blocks its own slot
+        assertThat(first.get(0).freeSlots())
+                .hasSize(17)
+                .doesNotContain(LocalTime.of(10, 0))
+                .contains(LocalTime.of(9, 30), LocalTime.of(10, 30));
+        assertThat(second).isEqualTo(first);
+        verify(userRepository, times(1)).existsByUserIdAndRole(PSYCHOLOGIST_ID, Role.PSYCHOLOGIST);
+        verify(appointmentSlotIndex, times(1)).slotsBetween(anyString(), any(), any());
+    }
+}
@@ -0,0 +1,69 @@
+package com.mindup.core.services;
+
+import com.mindup.core.services.IMPL.MediaServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MediaServiceImplTest {
+
+    @TempDir
+    Path storageRoot;
+
+    private SimpleMeterRegistry meterRegistry;
+    private MediaServiceImpl mediaService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // Thumbnails run inline so the test can check them right after storeImage
+        mediaService = new MediaServiceImpl(storageRoot.toString(), List.of(64), Runnable::run, meterRegistry);
+    }
+
+    @Test
+    void thumbnailsAreGeneratedForValidImages() throws IOException {
+        StoredMedia media = mediaService.storeImage(upload(png(200, 100)));
+
+        assertThat(mediaService.findThumbnail(media.hash(), 64)).isPresent();
+        assertThat(failures()).isZero();
+    }
+
+    @Test
+    void brokenImagesAreCountedAsThumbnailFailures() throws IOException {
+        // The header (and so the dimensions) is intact, the pixel data is cut off
+        byte[] png = png(200, 100);
+        byte[] truncated = Arrays.copyOf(png, 60);
+
+        StoredMedia media = mediaService.storeImage(upload(truncated));
+
+        assertThat(media.contentType()).isEqualTo("image/png");
+        assertThat(failures()).isEqualTo(1.0);
+        assertThat(mediaService.findOriginal(media.hash())).isPresent();
+    }
+
+    private double failures() {
+        return meterRegistry.get("media.thumbnail.failures").counter().count();
+    }
+
+    private static MockMultipartFile upload(byte[] content) {
+        return new MockMultipartFile("file", "photo.png", "image/png", content);
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,71 @@
+package com.mindup.core.services;
+
+import com.mindup.core.dtos.User.ResponseProfileImageUploadDto;
+import com.mindup.core.entities.User;
+import com.mindup.core.enums.MediaVerificationStatus;
+import com.mindup.core.exceptions.UserNotFoundException;
+import com.mindup.core.feign.ChatFeignClient;
+import com.mindup.core.mappers.UserMapper;
+import com.mindup.core.repositories.IAppointmentRepository;
+import com.mindup.core.repositories.PasswordResetTokenRepository;
+import com.mindup.core.repositories.UserRepository;
+import com.mindup.core.security.JwtService;
+import com.mindup.core.security.PasswordHashingService;
+import com.mindup.core.services.IMPL.UserServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ProfileImageUploadTest {
+
+    private static final MockMultipartFile FILE = new MockMultipartFile("file", "photo.png", "image/png", new byte[]{1});
+
+    private UserRepository userRepository;
+    private IMediaService mediaService;
+    private UserServiceImpl userService;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        mediaService = mock(IMediaService.class);
+        userService = new UserServiceImpl(userRepository, mock(PasswordHashingService.class), mock(UserMapper.class),
+                mock(JwtService.class), mock(EmailVerificationService.class), mock(ChatFeignClient.class),
+                mock(PasswordResetTokenRepository.class), mock(UserProfileCache.class), mock(IAppointmentRepository.class),
+                mock(ProfileMediaVerifier.class), mock(ApplicationEventPublisher.class), mediaService);
+    }
+
+    @Test
+    void unknownUserIsRejectedBeforeTheImageIsStored() {
+        when(userRepository.findById("unknown")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> userService.uploadProfileImage("unknown", FILE))
+                .isInstanceOf(UserNotFoundException.class);
+        verifyNoInteractions(mediaService);
+    }
+
+    @Test
+    void storedImageIsLinkedToTheUser() {
+        User user = new User();
+        user.setUserId("user-1");
+        when(userRepository.findById("user-1")).thenReturn(Optional.of(user));
+        when(mediaService.storeImage(any())).thenReturn(new StoredMedia("abc", "image/png"));
+        when(mediaService.getThumbnailSizes()).thenReturn(List.of(64));
+
+        ResponseProfileImageUploadDto response = userService.uploadProfileImage("user-1", FILE);
+
+        assertThat(user.getImage()).isEqualTo("/api/core/media/abc");
+        assertThat(user.getImageStatus()).isEqualTo(MediaVerificationStatus.VERIFIED);
+        assertThat(response.thumbnails()).containsExactly("/api/core/media/abc/thumbnail/64");
+    }
+}
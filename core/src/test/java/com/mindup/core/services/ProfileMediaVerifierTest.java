@@ -0,0 +1,153 @@
+package com.mindup.core.services;
+
+import com.mindup.core.entities.User;
+import com.mindup.core.enums.MediaVerificationStatus;
+import com.mindup.core.enums.ProfileMedia;
+import com.mindup.core.repositories.UserRepository;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProfileMediaVerifierTest {
+
+    private static final String USER_ID = "user-1";
+
+    private HttpServer server;
+    private UserRepository userRepository;
+    private UserProfileCache userProfileCache;
+    private User user;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.start();
+        userRepository = mock(UserRepository.class);
+        userProfileCache = mock(UserProfileCache.class);
+        user = new User();
+        user.setUserId(USER_ID);
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void imageServedWithImageContentTypeIsVerified() throws Exception {
+        respond("/photo.png", 200, "image/png");
+
+        assertThat(verifyImage(verifier(true), url("/photo.png"))).isEqualTo(MediaVerificationStatus.VERIFIED);
+        assertThat(user.getImageStatus()).isEqualTo(MediaVerificationStatus.VERIFIED);
+        assertThat(user.getImage()).isEqualTo(url("/photo.png"));
+    }
+
+    @Test
+    void missingImageIsRejectedAndCleared() throws Exception {
+        respond("/missing.png", 404, "text/html");
+
+        assertThat(verifyImage(verifier(true), url("/missing.png"))).isEqualTo(MediaVerificationStatus.REJECTED);
+        assertThat(user.getImageStatus()).isEqualTo(MediaVerificationStatus.REJECTED);
+        assertThat(user.getImage()).isNull();
+    }
+
+    @Test
+    void serverErrorsAreRetriedUntilTheImageIsServed() throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+        server.createContext("/flaky.png", exchange -> {
+            boolean fail = requests.incrementAndGet() < 3;
+            exchange.getResponseHeaders().add("Content-Type", "image/png");
+            exchange.sendResponseHeaders(fail ? 503 : 200, -1);
+            exchange.close();
+        });
+
+        assertThat(verifyImage(verifier(true), url("/flaky.png"))).isEqualTo(MediaVerificationStatus.VERIFIED);
+        assertThat(requests).hasValue(3);
+    }
+
+    @Test
+    void redirectsAreFollowedHopByHop() throws Exception {
+        server.createContext("/old.png", exchange -> {
+            exchange.getResponseHeaders().add("Location", "/photo.png");
+            exchange.sendResponseHeaders(302, -1);
+            exchange.close();
+        });
+        respond("/photo.png", 200, "image/png");
+
+        assertThat(verifyImage(verifier(true), url("/old.png"))).isEqualTo(MediaVerificationStatus.VERIFIED);
+    }
+
+    @Test
+    void connectionRefusedLeavesTheUrlPending() throws Exception {
+        int closedPort;
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getByName("127.0.0.1"))) {
+            closedPort = socket.getLocalPort();
+        }
+        String url = "http://127.0.0.1:" + closedPort + "/photo.png";
+
+        ProfileMediaVerifier verifier = verifier(true);
+        assertThat(verifyImage(verifier, url)).isEqualTo(MediaVerificationStatus.PENDING_VERIFICATION);
+        assertThat(user.getImageStatus()).isEqualTo(MediaVerificationStatus.PENDING_VERIFICATION);
+        assertThat(user.getImage()).isEqualTo(url);
+        verify(userRepository, never()).save(any());
+        // Nothing is cached either, the next update checks again
+        assertThat(verifier.knownStatus(ProfileMedia.IMAGE, url)).isEqualTo(MediaVerificationStatus.PENDING_VERIFICATION);
+    }
+
+    @Test
+    void loopbackAddressesAreBlockedWithoutContactingThem() throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+        server.createContext("/photo.png", exchange -> {
+            requests.incrementAndGet();
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+
+        assertThat(verifyImage(verifier(false), url("/photo.png"))).isEqualTo(MediaVerificationStatus.REJECTED);
+        assertThat(requests).hasValue(0);
+        assertThat(user.getImage()).isNull();
+    }
+
+    private MediaVerificationStatus verifyImage(ProfileMediaVerifier verifier, String url) throws Exception {
+        user.setImage(url);
+        user.setImageStatus(MediaVerificationStatus.PENDING_VERIFICATION);
+        return verifier.verify(new ProfileMediaChangedEvent(USER_ID, ProfileMedia.IMAGE, url)).get(10, TimeUnit.SECONDS);
+    }
+
+    private ProfileMediaVerifier verifier(boolean allowPrivateAddresses) {
+        return new ProfileMediaVerifier(userRepository, new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                userProfileCache, Duration.ofSeconds(2), "maximumSize=100", allowPrivateAddresses,
+                3, Duration.ofMillis(20), 3, Runnable::run);
+    }
+
+    private void respond(String path, int status, String contentType) {
+        server.createContext(path, exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", contentType);
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+        });
+    }
+
+    private String url(String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+}
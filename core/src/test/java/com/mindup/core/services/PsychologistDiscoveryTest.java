@@ -0,0 +1,116 @@
+package com.mindup.core.services;
+
+import com.mindup.core.PostgresContainerTest;
+import com.mindup.core.dtos.User.PsychologistSearchDTO;
+import com.mindup.core.dtos.User.ResponsePsychologistDto;
+import com.mindup.core.dtos.User.ResponsePsychologistPageDto;
+import com.mindup.core.entities.User;
+import com.mindup.core.enums.Role;
+import com.mindup.core.exceptions.InvalidPreferencesException;
+import com.mindup.core.services.IMPL.AvailabilityServiceImpl;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({PatientService.class, AvailabilityServiceImpl.class, AppointmentSlotIndex.class})
+class PsychologistDiscoveryTest extends PostgresContainerTest {
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void pagingBySpecialtyVisitsEveryRowOnceWithNullsLast() {
+        List<User> psychologists = new ArrayList<>();
+        for (String specialty : new String[]{"Grief", null, "Anxiety", "Grief", null, "", "Anxiety", null, "Grief"}) {
+            psychologists.add(persistPsychologist(specialty));
+        }
+        List<String> expected = psychologists.stream()
+                .sorted(Comparator.comparing(User::getSpecialty, Comparator.nullsLast(Comparator.<String>naturalOrder()))
+                        .thenComparing(User::getUserId))
+                .map(User::getUserId)
+                .toList();
+
+        for (int size = 1; size <= 4; size++) {
+            assertThat(pageThrough("specialty", size)).as("page size %d", size).containsExactlyElementsOf(expected);
+        }
+    }
+
+    @Test
+    void pagingByNameStillWorksWithoutNullableValues() {
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            expected.add(persistPsychologist("Anxiety").getUserId());
+        }
+        expected.sort(String::compareTo);
+
+        // All rows share the same name, so the order comes from user_id alone
+        assertThat(pageThrough("name", 2)).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void agesOutsideTheSupportedRangeAreRejected() {
+        PsychologistSearchDTO searchDTO = new PsychologistSearchDTO();
+        searchDTO.setMaxAge(Integer.MAX_VALUE);
+
+        assertThatThrownBy(() -> patientService.discoverPsychologists(searchDTO))
+                .isInstanceOf(InvalidPreferencesException.class);
+
+        searchDTO.setMaxAge(null);
+        searchDTO.setMinAge(-1);
+        assertThatThrownBy(() -> patientService.discoverPsychologists(searchDTO))
+                .isInstanceOf(InvalidPreferencesException.class);
+    }
+
+    @Test
+    void requestBoundsAreCheckedByBeanValidation() {
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+        PsychologistSearchDTO searchDTO = new PsychologistSearchDTO();
+        searchDTO.setMinAge(500);
+        searchDTO.setMaxAge(-3);
+        searchDTO.setSize(1000);
+
+        assertThat(validator.validate(searchDTO)).hasSize(3);
+    }
+
+    private List<String> pageThrough(String sortBy, int size) {
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            PsychologistSearchDTO searchDTO = new PsychologistSearchDTO();
+            searchDTO.setSortBy(sortBy);
+            searchDTO.setSize(size);
+            searchDTO.setCursor(cursor);
+            ResponsePsychologistPageDto page = patientService.discoverPsychologists(searchDTO);
+            assertThat(page.content()).hasSizeLessThanOrEqualTo(size);
+            page.content().stream().map(ResponsePsychologistDto::userId).forEach(seen::add);
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        return seen;
+    }
+
+    private User persistPsychologist(String specialty) {
+        User psychologist = newUser(Role.PSYCHOLOGIST, "Psychologist");
+        psychologist.setSpecialty(specialty);
+        User saved = entityManager.persist(psychologist);
+        entityManager.flush();
+        return saved;
+    }
+}
@@ -0,0 +1,116 @@
+package com.mindup.core.services;
+
+import com.mindup.core.PostgresContainerTest;
+import com.mindup.core.dtos.Appointment.ResponsePatientsDto;
+import com.mindup.core.entities.AppointmentEntity;
+import com.mindup.core.entities.User;
+import com.mindup.core.enums.AppointmentStatus;
+import com.mindup.core.enums.Role;
+import com.mindup.core.mappers.AppointmentMapperImpl;
+import com.mindup.core.services.IMPL.AppointmentServiceImpl;
+import com.mindup.core.validations.UserValidation;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Regression test for the N+1 in getPsychologistPatients: the statement count must not grow with the patients
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({AppointmentServiceImpl.class, AppointmentMapperImpl.class, UserValidation.class,
+        AppointmentSlotIndex.class, AppointmentBookingLock.class})
+class PsychologistPatientsStatementCountTest extends PostgresContainerTest {
+
+    @Autowired
+    private AppointmentServiceImpl appointmentService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private UserProfileCache userProfileCache;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void statementCountDoesNotGrowWithThePatientCount() {
+        User fewPatients = psychologistWithPatients(3);
+        User manyPatients = psychologistWithPatients(60);
+
+        long fewStatements = statementsFor(fewPatients, 3);
+        long manyStatements = statementsFor(manyPatients, 60);
+
+        // One lookup of the psychologist plus one grouped query, whatever the number of patients
+        assertThat(fewStatements).isEqualTo(2);
+        assertThat(manyStatements).isEqualTo(fewStatements);
+    }
+
+    @Test
+    void nextAppointmentIgnoresPastAndCanceledAppointments() {
+        User psychologist = entityManager.persist(newUser(Role.PSYCHOLOGIST, "Psychologist"));
+        User patient = entityManager.persist(newUser(Role.PATIENT, "Patient"));
+        LocalDateTime next = LocalDateTime.now().plusDays(2).withNano(0);
+        entityManager.persist(appointment(patient, psychologist, LocalDateTime.now().minusDays(3), AppointmentStatus.ACCEPTED));
+        entityManager.persist(appointment(patient, psychologist, LocalDateTime.now().plusDays(1), AppointmentStatus.CANCELED));
+        entityManager.persist(appointment(patient, psychologist, next, AppointmentStatus.PENDING));
+        entityManager.persist(appointment(patient, psychologist, next.plusDays(7), AppointmentStatus.PENDING));
+        entityManager.flush();
+        entityManager.clear();
+
+        Set<ResponsePatientsDto> patients = appointmentService.getPsychologistPatients(psychologist.getUserId());
+
+        assertThat(patients).singleElement().satisfies(dto -> {
+            assertThat(dto.userId()).isEqualTo(patient.getUserId());
+            assertThat(dto.nextAppointment()).isEqualTo(next);
+        });
+    }
+
+    private long statementsFor(User psychologist, int expectedPatients) {
+        statistics.clear();
+        Set<ResponsePatientsDto> patients = appointmentService.getPsychologistPatients(psychologist.getUserId());
+        assertThat(patients).hasSize(expectedPatients);
+        return statistics.getPrepareStatementCount();
+    }
+
+    private User psychologistWithPatients(int patientCount) {
+        User psychologist = entityManager.persist(newUser(Role.PSYCHOLOGIST, "Psychologist"));
+        for (int i = 0; i < patientCount; i++) {
+            User patient = entityManager.persist(newUser(Role.PATIENT, "Patient " + i));
+            entityManager.persist(appointment(patient, psychologist, LocalDateTime.now().plusDays(i + 1), AppointmentStatus.PENDING));
+        }
+        // Measured reads must hit the database, not the persistence context
+        entityManager.flush();
+        entityManager.clear();
+        return psychologist;
+    }
+
+    private static AppointmentEntity appointment(User patient, User psychologist, LocalDateTime date,
+                                                 AppointmentStatus status) {
+        AppointmentEntity appointment = new AppointmentEntity();
+        appointment.setPatient(patient);
+        appointment.setPsychologist(psychologist);
+        appointment.setDate(date);
+        appointment.setStatus(status);
+        return appointment;
+    }
+}
@@ -0,0 +1,132 @@
+package com.mindup.core.services;
+
+import com.mindup.core.PostgresContainerTest;
+import com.mindup.core.dtos.User.PatientPreferencesDTO;
+import com.mindup.core.dtos.User.ResponsePsychologistAvailabilityDto;
+import com.mindup.core.entities.AppointmentEntity;
+import com.mindup.core.entities.User;
+import com.mindup.core.enums.AppointmentStatus;
+import com.mindup.core.enums.Gender;
+import com.mindup.core.enums.Role;
+import com.mindup.core.services.IMPL.AvailabilityServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({PatientService.class, AvailabilityServiceImpl.class, AppointmentSlotIndex.class})
+class PsychologistSoonestSlotSearchTest extends PostgresContainerTest {
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private IAvailabilityService availabilityService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private List<LocalDateTime> slots;
+
+    @BeforeEach
+    void setUp() {
+        slots = availabilityService.workingSlots(30);
+    }
+
+    @Test
+    void ranksPsychologistsByTheirFirstFreeSlot() {
+        User patient = entityManager.persist(newUser(Role.PATIENT, "Patient"));
+        User freeNow = entityManager.persist(psychologist("Free now", Gender.FEMALE));
+        User freeNext = entityManager.persist(psychologist("Free next", Gender.FEMALE));
+        User freeLater = entityManager.persist(psychologist("Free later", Gender.FEMALE));
+        entityManager.persist(psychologist("Other gender", Gender.MALE));
+
+        book(patient, freeNext, slots.get(0), AppointmentStatus.PENDING);
+        book(patient, freeLater, slots.get(0), AppointmentStatus.ACCEPTED);
+        book(patient, freeLater, slots.get(1), AppointmentStatus.PENDING);
+        // Canceled appointments do not take the slot
+        book(patient, freeNow, slots.get(0), AppointmentStatus.CANCELED);
+        entityManager.flush();
+
+        List<ResponsePsychologistAvailabilityDto> ranked = patientService.searchPsychologistsBySoonestSlot(femaleBelow35(), 10);
+
+        assertThat(ranked).extracting(ResponsePsychologistAvailabilityDto::userId)
+                .containsExactly(freeNow.getUserId(), freeNext.getUserId(), freeLater.getUserId());
+        assertThat(ranked).extracting(ResponsePsychologistAvailabilityDto::earliestFreeSlot)
+                .containsExactly(slots.get(0), slots.get(1), slots.get(2));
+    }
+
+    @Test
+    void stopsAtTheLimit() {
+        for (int i = 0; i < 5; i++) {
+            entityManager.persist(psychologist("Psychologist " + i, Gender.FEMALE));
+        }
+        entityManager.flush();
+
+        List<ResponsePsychologistAvailabilityDto> ranked = patientService.searchPsychologistsBySoonestSlot(femaleBelow35(), 2);
+
+        assertThat(ranked).hasSize(2).allMatch(p -> p.earliestFreeSlot().equals(slots.get(0)));
+    }
+
+    @Test
+    void appointmentsInsideTheBufferTakeTheSlotAndTiesFollowBirthDate() {
+        User patient = entityManager.persist(newUser(Role.PATIENT, "Patient"));
+        User older = psychologist("Older", Gender.FEMALE);
+        older.setBirth(LocalDate.now().minusYears(34));
+        older = entityManager.persist(older);
+        User younger = entityManager.persist(psychologist("Younger", Gender.FEMALE));
+        User busy = entityManager.persist(psychologist("Busy", Gender.FEMALE));
+        book(patient, busy, slots.get(0).minusMinutes(AppointmentSlotIndex.BUFFER_MINUTES), AppointmentStatus.ACCEPTED);
+        entityManager.flush();
+
+        List<ResponsePsychologistAvailabilityDto> ranked = patientService.searchPsychologistsBySoonestSlot(femaleBelow35(), 10);
+
+        assertThat(ranked).extracting(ResponsePsychologistAvailabilityDto::userId)
+                .containsExactly(older.getUserId(), younger.getUserId(), busy.getUserId());
+        assertThat(ranked.get(0).gender()).isEqualTo(Gender.FEMALE);
+        assertThat(ranked.get(0).name()).isEqualTo("Older");
+        assertThat(ranked.get(2).earliestFreeSlot()).isEqualTo(slots.get(1));
+    }
+
+    @Test
+    void returnsNothingWhenNoPsychologistMatches() {
+        entityManager.persist(psychologist("Other gender", Gender.MALE));
+        entityManager.flush();
+
+        assertThat(patientService.searchPsychologistsBySoonestSlot(femaleBelow35(), 10)).isEmpty();
+    }
+
+    private User psychologist(String name, Gender gender) {
+        User psychologist = newUser(Role.PSYCHOLOGIST, name);
+        psychologist.setGender(gender);
+        psychologist.setBirth(LocalDate.now().minusYears(30));
+        return psychologist;
+    }
+
+    private void book(User patient, User psychologist, LocalDateTime date, AppointmentStatus status) {
+        AppointmentEntity appointment = new AppointmentEntity();
+        appointment.setPatient(patient);
+        appointment.setPsychologist(psychologist);
+        appointment.setDate(date);
+        appointment.setStatus(status);
+        entityManager.persist(appointment);
+    }
+
+    private static PatientPreferencesDTO femaleBelow35() {
+        PatientPreferencesDTO preferences = new PatientPreferencesDTO();
+        preferences.setGender(Gender.FEMALE);
+        preferences.setIsBelow35(true);
+        return preferences;
+    }
+}
@@ -0,0 +1,115 @@
+package com.mindup.core.services;
+
+import com.mindup.core.PostgresContainerTest;
+import com.mindup.core.dtos.User.PsychologistTextSearchView;
+import com.mindup.core.dtos.User.ResponsePsychologistTextSearchPageDto;
+import com.mindup.core.entities.User;
+import com.mindup.core.enums.Gender;
+import com.mindup.core.enums.Role;
+import com.mindup.core.repositories.UserRepository;
+import com.mindup.core.services.IMPL.AvailabilityServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({PatientService.class, AvailabilityServiceImpl.class, AppointmentSlotIndex.class})
+class PsychologistTextSearchTest extends PostgresContainerTest {
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void specialtyMatchesRankAboveInformationMatches() {
+        User bySpecialty = persistPsychologist("Anxiety", "Buenos Aires", "Cognitive therapy");
+        User byInformation = persistPsychologist("Couples", "Rosario", "Also works with anxiety");
+        persistPsychologist("Couples", "Rosario", "Family therapy");
+
+        ResponsePsychologistTextSearchPageDto page = patientService.searchPsychologistsByText("anxiety", null, 10);
+
+        assertThat(page.content()).extracting(PsychologistTextSearchView::getUserId)
+                .containsExactly(bySpecialty.getUserId(), byInformation.getUserId());
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void cursorPagesThroughTiedRanksWithoutGapsOrDuplicates() {
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            expected.add(persistPsychologist("Grief", "Cordoba", "Grief counseling").getUserId());
+        }
+        persistPsychologist("Anxiety", "Cordoba", "Cognitive therapy");
+        expected.sort(String::compareTo);
+
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            ResponsePsychologistTextSearchPageDto page = patientService.searchPsychologistsByText("grief", cursor, 2);
+            assertThat(page.content()).hasSizeLessThanOrEqualTo(2);
+            page.content().forEach(row -> seen.add(row.getUserId()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        // Equal ranks fall back to user_id order
+        assertThat(seen).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void nativeQueriesMapEveryProjectedColumn() {
+        User psychologist = persistPsychologist("Anxiety", "Cordoba", "Anxiety and stress");
+
+        List<PsychologistTextSearchView> firstPage = userRepository.searchPsychologistsByText("anxiety", 10);
+        assertThat(firstPage).hasSize(1);
+        PsychologistTextSearchView row = firstPage.get(0);
+        assertThat(row.getUserId()).isEqualTo(psychologist.getUserId());
+        assertThat(row.getName()).isEqualTo("Psychologist");
+        assertThat(row.getGender()).isEqualTo(Gender.FEMALE.name());
+        assertThat(row.getSpecialty()).isEqualTo("Anxiety");
+        assertThat(row.getLocation()).isEqualTo("Cordoba");
+        assertThat(row.getRank()).isPositive();
+
+        // Nothing ranks after the only match
+        assertThat(userRepository.searchPsychologistsByTextAfter("anxiety", row.getRank(), row.getUserId(), 10)).isEmpty();
+    }
+
+    @Test
+    void highlightEscapesMarkupFromTheProfile() {
+        persistPsychologist("Anxiety", "Cordoba",
+                "Anxiety <script>alert('x')</script> & \"panic\" <img src=x onerror=alert(1)>");
+
+        ResponsePsychologistTextSearchPageDto page = patientService.searchPsychologistsByText("anxiety", null, 10);
+
+        String highlight = page.content().get(0).getHighlight();
+        assertThat(highlight).contains("<b>Anxiety</b>")
+                .contains("&lt;script&gt;")
+                .doesNotContain("<script>")
+                .doesNotContain("<img");
+        // The only markup left is the highlight markers
+        assertThat(highlight.replace("<b>", "").replace("</b>", "")).doesNotContain("<").doesNotContain(">");
+    }
+
+    private User persistPsychologist(String specialty, String location, String information) {
+        User psychologist = newUser(Role.PSYCHOLOGIST, "Psychologist");
+        psychologist.setSpecialty(specialty);
+        psychologist.setLocation(location);
+        psychologist.setInformation(information);
+        User saved = entityManager.persist(psychologist);
+        entityManager.flush();
+        return saved;
+    }
+}
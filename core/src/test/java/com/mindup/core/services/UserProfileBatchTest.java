@@ -0,0 +1,106 @@
+package com.mindup.core.services;
+
+import com.mindup.core.dtos.User.RequestUserProfileBatchDto;
+import com.mindup.core.dtos.User.ResponseUserProfileBatchDto;
+import com.mindup.core.dtos.User.UserProfileDTO;
+import com.mindup.core.entities.User;
+import com.mindup.core.enums.Role;
+import com.mindup.core.feign.ChatFeignClient;
+import com.mindup.core.mappers.UserMapper;
+import com.mindup.core.repositories.IAppointmentRepository;
+import com.mindup.core.repositories.PasswordResetTokenRepository;
+import com.mindup.core.repositories.UserRepository;
+import com.mindup.core.security.JwtService;
+import com.mindup.core.security.PasswordHashingService;
+import com.mindup.core.services.IMPL.UserServiceImpl;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class UserProfileBatchTest {
+
+    private UserRepository userRepository;
+    private UserProfileCache userProfileCache;
+    private IAppointmentRepository appointmentRepository;
+    private UserServiceImpl userService;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        userProfileCache = mock(UserProfileCache.class);
+        appointmentRepository = mock(IAppointmentRepository.class);
+        userService = new UserServiceImpl(userRepository, mock(PasswordHashingService.class), mock(UserMapper.class),
+                mock(JwtService.class), mock(EmailVerificationService.class), mock(ChatFeignClient.class),
+                mock(PasswordResetTokenRepository.class), userProfileCache, appointmentRepository,
+                mock(ProfileMediaVerifier.class), mock(ApplicationEventPublisher.class), mock(IMediaService.class));
+    }
+
+    @Test
+    void requestBoundsAreCheckedByBeanValidation() {
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+        assertThat(validator.validate(new RequestUserProfileBatchDto(List.of()))).hasSize(1);
+        assertThat(validator.validate(new RequestUserProfileBatchDto(ids(101)))).hasSize(1);
+        assertThat(validator.validate(new RequestUserProfileBatchDto(Arrays.asList("user-1", " ", null)))).hasSize(2);
+        assertThat(validator.validate(new RequestUserProfileBatchDto(ids(100)))).isEmpty();
+    }
+
+    @Test
+    void oversizedOrBlankBatchesAreRejectedBeforeAnyLookup() {
+        assertThatThrownBy(() -> userService.findUserProfilesByIds(ids(101), "requester", "PATIENT"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> userService.findUserProfilesByIds(List.of(), "requester", "PATIENT"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> userService.findUserProfilesByIds(Arrays.asList("user-1", ""), "requester", "PATIENT"))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        verifyNoInteractions(userRepository, userProfileCache, appointmentRepository);
+    }
+
+    @Test
+    void profilesAreSplitIntoVisibleNotFoundAndForbidden() {
+        UserProfileDTO cachedPsychologist = new UserProfileDTO();
+        cachedPsychologist.setRole(Role.PSYCHOLOGIST);
+        when(userProfileCache.get("psychologist")).thenReturn(cachedPsychologist);
+        when(userRepository.findAllById(anyList())).thenReturn(List.of(
+                user("own-patient", Role.PATIENT), user("other-patient", Role.PATIENT)));
+        when(appointmentRepository.findPatientIdsByPsychologistIdAndPatientIdIn("requester", List.of("own-patient", "other-patient")))
+                .thenReturn(Set.of("own-patient"));
+
+        ResponseUserProfileBatchDto response = userService.findUserProfilesByIds(
+                List.of("psychologist", "own-patient", "other-patient", "missing", "psychologist"),
+                "requester", "PSYCHOLOGIST");
+
+        assertThat(response.profiles()).containsOnlyKeys("psychologist", "own-patient");
+        assertThat(response.notFound()).containsExactly("missing");
+        assertThat(response.forbidden()).containsExactly("other-patient");
+        // Cache hits are not loaded again
+        verify(userRepository).findAllById(List.of("own-patient", "other-patient", "missing"));
+    }
+
+    private static List<String> ids(int count) {
+        return IntStream.range(0, count).mapToObj(i -> "user-" + i).toList();
+    }
+
+    private static User user(String userId, Role role) {
+        User user = new User();
+        user.setUserId(userId);
+        user.setRole(role);
+        return user;
+    }
+}
@@ -1,5 +1,6 @@
 package com.mindup.gateway.security;
 
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cloud.context.config.annotation.RefreshScope;
@@ -7,12 +8,16 @@ import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.stereotype.Component;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import com.mindup.gateway.security.revocation.TokenRevocationService;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
+import java.util.Optional;
+
 @RefreshScope
 @Component
 @RequiredArgsConstructor
@@ -20,6 +25,10 @@ public class CustomJwtAuthenticationFilter implements GatewayFilter {
 
     private final RouterValidator routerValidator;
     private final JwtService jwtService;
+    private final IdentityHeaders identityHeaders;
+    private final TokenRevocationService tokenRevocationService;
+
+    private static final String LOGOUT_PATH = "/api/core/user/logout";
 
     @Value("${jwt.prefix}")
     public String TOKEN_PREFIX;
@@ -34,10 +43,29 @@ public class CustomJwtAuthenticationFilter implements GatewayFilter {
 
             final String token = this.getAuthHeader(request);
 
-            if (!jwtService.isTokenValid(token))
+            Optional<Claims> claims = jwtService.getVerifiedClaims(token)
+                    .filter(verified -> !tokenRevocationService.isRevoked(verified));
+            if (claims.isEmpty())
                 return this.onError(exchange, "Authorization header is invalid", HttpStatus.UNAUTHORIZED);
+
+            // Logout is answered by core; the gateway is where the token stops being accepted
+            if (HttpMethod.POST.equals(request.getMethod()) && LOGOUT_PATH.equals(request.getURI().getPath()))
+                tokenRevocationService.revoke(claims.get());
+
+            ServerHttpRequest forwarded = request.mutate()
+                    .headers(headers -> {
+                        identityHeaders.strip(headers);
+                        identityHeaders.write(headers, claims.get());
+                    })
+                    .build();
+            return chain.filter(exchange.mutate().request(forwarded).build());
         }
-        return chain.filter(exchange);
+
+        // Identity headers are only trusted when the gateway itself wrote them
+        ServerHttpRequest stripped = request.mutate()
+                .headers(identityHeaders::strip)
+                .build();
+        return chain.filter(exchange.mutate().request(stripped).build());
     }
 
     private Mono<Void> onError(ServerWebExchange exchange, String err, HttpStatus httpStatus) {
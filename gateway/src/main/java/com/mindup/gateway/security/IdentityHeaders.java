@@ -0,0 +1,75 @@
+package com.mindup.gateway.security;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+import java.util.List;
+
+// Identity of the verified caller, forwarded to core and chat so they do not parse the JWT again.
+// The values are signed with an internal HMAC key; anything a client sends under these names is dropped.
+@Component
+public class IdentityHeaders {
+
+    public static final String USER_ID = "X-Auth-User-Id";
+    public static final String ROLE = "X-Auth-User-Role";
+    public static final String EMAIL = "X-Auth-User-Email";
+    public static final String TIMESTAMP = "X-Auth-Timestamp";
+    public static final String SIGNATURE = "X-Auth-Signature";
+    public static final List<String> ALL = List.of(USER_ID, ROLE, EMAIL, TIMESTAMP, SIGNATURE);
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec signingKey;
+    // Mac instances are not thread-safe; one per thread avoids a provider lookup per request
+    private final ThreadLocal<Mac> mac;
+
+    public IdentityHeaders(@Value("${identity.secret}") String secret) {
+        this.signingKey = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.mac = ThreadLocal.withInitial(this::newMac);
+    }
+
+    public void strip(HttpHeaders headers) {
+        ALL.forEach(headers::remove);
+    }
+
+    public void write(HttpHeaders headers, Claims claims) {
+        String userId = stringClaim(claims, "userId");
+        String role = stringClaim(claims, "role");
+        String email = claims.getSubject() == null ? "" : claims.getSubject();
+        String timestamp = String.valueOf(System.currentTimeMillis());
+
+        headers.set(USER_ID, userId);
+        headers.set(ROLE, role);
+        headers.set(EMAIL, email);
+        headers.set(TIMESTAMP, timestamp);
+        headers.set(SIGNATURE, sign(userId, role, email, timestamp));
+    }
+
+    private String sign(String userId, String role, String email, String timestamp) {
+        String payload = String.join("\n", userId, role, email, timestamp);
+        byte[] signature = mac.get().doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+    }
+
+    private static String stringClaim(Claims claims, String name) {
+        Object value = claims.get(name);
+        return value == null ? "" : value.toString();
+    }
+
+    private Mac newMac() {
+        try {
+            Mac instance = Mac.getInstance(ALGORITHM);
+            instance.init(signingKey);
+            return instance;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
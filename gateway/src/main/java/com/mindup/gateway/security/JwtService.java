@@ -1,26 +1,65 @@
 package com.mindup.gateway.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Service
 public class JwtService {
-    @Value("${jwt.secret}")
-    private String secretKey;
 
-    @Value("${jwt.expiration}")
-    private long jwtExpiration;
+    private final long jwtExpiration;
+    // Immutable and thread-safe, built once instead of per sign/parse
+    private final Key signInKey;
+    private final JwtParser jwtParser;
+    // Tokens whose signature has already been checked, keyed by the token's SHA-256 so no bearer token is kept
+    // in memory; each entry expires with the token's exp
+    private final Cache<String, Claims> verifiedTokens;
+    // MessageDigest instances are not thread-safe
+    private final ThreadLocal<MessageDigest> sha256 = ThreadLocal.withInitial(JwtService::newSha256);
+    private final Timer verificationTimer;
+
+    public JwtService(@Value("${jwt.secret}") String secretKey,
+                      @Value("${jwt.expiration}") long jwtExpiration,
+                      @Value("${jwt.verified-cache.maximum-size}") long verifiedCacheSize,
+                      MeterRegistry meterRegistry) {
+        this.jwtExpiration = jwtExpiration;
+        this.signInKey = Keys.hmacShaKeyFor(Base64.getDecoder().decode(secretKey));
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signInKey)
+                .build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheSize)
+                .expireAfter(new ExpireAtTokenExpiration())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "gateway.verified-tokens");
+        this.verificationTimer = Timer.builder("gateway.jwt.verification")
+                .description("Signature verification and parsing of tokens not found in the verified-token cache")
+                .register(meterRegistry);
+    }
 
     public String extractEmail(String token) {
         return extractClaim(token, Claims::getSubject);
@@ -54,36 +93,83 @@ public class JwtService {
                 .setSubject(email)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .signWith(signInKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     public boolean isTokenValid(String token) {
-        return (!isTokenExpired(token));
+        return getVerifiedClaims(token).isPresent();
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    // Claims of a correctly signed, unexpired token. Cache hits skip parsing and the HMAC check,
+    // a lookup costs one SHA-256 of the token.
+    public Optional<Claims> getVerifiedClaims(String token) {
+        if (token == null) {
+            return Optional.empty();
+        }
+        String key = cacheKey(token);
+        Claims cached = verifiedTokens.getIfPresent(key);
+        if (cached != null) {
+            return isExpired(cached) ? Optional.empty() : Optional.of(cached);
+        }
+
+        Claims claims;
+        try {
+            claims = verificationTimer.record(() -> jwtParser.parseClaimsJws(token).getBody());
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        if (claims == null || isExpired(claims)) {
+            return Optional.empty();
+        }
+        verifiedTokens.put(key, claims);
+        return Optional.of(claims);
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private String cacheKey(String token) {
+        byte[] digest = sha256.get().digest(token.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
     }
 
-    private Claims extractAllClaims(String token) {
+    private static MessageDigest newSha256() {
         try {
-            return Jwts
-                    .parserBuilder()
-                    .setSigningKey(getSignInKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-        } catch (RuntimeException e) {
-            throw new RuntimeException("Token ha expirado");
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
         }
     }
 
-    private Key getSignInKey() {
-        return Keys.hmacShaKeyFor(Base64.getDecoder().decode(secretKey));
+    private static boolean isExpired(Claims claims) {
+        return claims.getExpiration() != null && claims.getExpiration().before(new Date());
+    }
+
+    private Claims extractAllClaims(String token) {
+        return getVerifiedClaims(token)
+                .orElseThrow(() -> new RuntimeException("Token ha expirado"));
+    }
+
+    private static class ExpireAtTokenExpiration implements Expiry<String, Claims> {
+
+        // Tokens without exp are never valid for long; keep them for at most an hour
+        private static final long MAX_NANOS = TimeUnit.HOURS.toNanos(1);
+
+        @Override
+        public long expireAfterCreate(String tokenHash, Claims claims, long currentTime) {
+            if (claims.getExpiration() == null) {
+                return MAX_NANOS;
+            }
+            long remainingMillis = claims.getExpiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+        }
+
+        @Override
+        public long expireAfterUpdate(String tokenHash, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String tokenHash, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
@@ -1,24 +1,78 @@
 package com.mindup.gateway.security;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.server.PathContainer;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.stereotype.Component;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+// Decides which requests skip JWT authentication. Rules come from gateway.open-endpoints as
+// "[METHOD ]path", e.g. "POST /api/core/login" or "GET /api/core/media/**"; without a method any
+// method matches. Literal paths are matched exactly through a hash lookup, the rest are PathPatterns
+// parsed once at startup.
+@Component
+public class RouterValidator {
+
+    private static final String ANY_METHOD = "*";
+
+    private final Map<String, Set<String>> exactRules = new HashMap<>();
+    private final List<PatternRule> patternRules = new ArrayList<>();
 
-    @Component
-    public class RouterValidator {
-
-        public static final List<String> openApiEndpoints = List.of(
-                "/api/core/register",
-                "/api/core/login",
-                "/api/core/verify",
-                "/api/core/requestPwReset",
-                "/api/core/resetPW"
-        );
-
-        public boolean isSecured(ServerHttpRequest serverHttpRequest) {
-            System.out.println(serverHttpRequest.getURI().getPath());
-            return openApiEndpoints.stream().noneMatch(
-                    uri -> serverHttpRequest.getURI().getPath().contains(uri));
+    public RouterValidator(@Value("${gateway.open-endpoints}") List<String> openEndpoints) {
+        PathPatternParser parser = new PathPatternParser();
+        for (String endpoint : openEndpoints) {
+            String rule = endpoint.trim();
+            if (rule.isEmpty()) {
+                continue;
+            }
+            String method = ANY_METHOD;
+            String path = rule;
+            int space = rule.indexOf(' ');
+            if (space > 0) {
+                method = rule.substring(0, space).toUpperCase(Locale.ROOT);
+                path = rule.substring(space + 1).trim();
+            }
+            if (!path.startsWith("/")) {
+                throw new IllegalArgumentException("Invalid open endpoint rule: " + endpoint);
+            }
+
+            if (isLiteral(path)) {
+                exactRules.computeIfAbsent(path, key -> new HashSet<>()).add(method);
+            } else {
+                patternRules.add(new PatternRule(method, parser.parse(path)));
+            }
         }
     }
 
+    public boolean isSecured(ServerHttpRequest serverHttpRequest) {
+        PathContainer path = serverHttpRequest.getPath().pathWithinApplication();
+        String method = serverHttpRequest.getMethod().name();
+
+        Set<String> methods = exactRules.get(path.value());
+        if (methods != null && (methods.contains(ANY_METHOD) || methods.contains(method))) {
+            return false;
+        }
+        for (PatternRule rule : patternRules) {
+            if ((rule.method().equals(ANY_METHOD) || rule.method().equals(method)) && rule.pattern().matches(path)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isLiteral(String path) {
+        return path.indexOf('*') < 0 && path.indexOf('?') < 0 && path.indexOf('{') < 0;
+    }
+
+    private record PatternRule(String method, PathPattern pattern) {
+    }
+}
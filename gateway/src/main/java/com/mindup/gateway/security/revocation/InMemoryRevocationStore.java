@@ -0,0 +1,20 @@
+package com.mindup.gateway.security.revocation;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+public class InMemoryRevocationStore implements RevocationStore {
+
+    private final List<Consumer<RevokedToken>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(RevokedToken token) {
+        listeners.forEach(listener -> listener.accept(token));
+    }
+
+    @Override
+    public void subscribe(Consumer<RevokedToken> listener) {
+        listeners.add(listener);
+    }
+}
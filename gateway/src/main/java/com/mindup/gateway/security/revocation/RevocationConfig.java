@@ -0,0 +1,15 @@
+package com.mindup.gateway.security.revocation;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class RevocationConfig {
+
+    @Bean
+    @ConditionalOnMissingBean(RevocationStore.class)
+    public RevocationStore revocationStore() {
+        return new InMemoryRevocationStore();
+    }
+}
@@ -0,0 +1,13 @@
+package com.mindup.gateway.security.revocation;
+
+import java.util.function.Consumer;
+
+// Distributes revocations between gateway replicas. The default InMemoryRevocationStore only
+// reaches the local process; declare another RevocationStore bean (e.g. Redis pub/sub) to share them.
+public interface RevocationStore {
+
+    void publish(RevokedToken token);
+
+    // Receives every revocation published from now on, including this replica's own
+    void subscribe(Consumer<RevokedToken> listener);
+}
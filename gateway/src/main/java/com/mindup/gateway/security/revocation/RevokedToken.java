@@ -0,0 +1,5 @@
+package com.mindup.gateway.security.revocation;
+
+// A revoked token id and the token's own expiry (epoch millis), after which the entry can be dropped
+public record RevokedToken(String jti, long expiresAt) {
+}
@@ -0,0 +1,91 @@
+package com.mindup.gateway.security.revocation;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Revoked jtis grouped into buckets by the token's expiry. A check only looks at the bucket of the
+// token's own exp: a small Bloom filter answers the common "not revoked" case, the exact set confirms
+// positives. Whole buckets are dropped once every token in them has expired.
+public class TokenRevocationList {
+
+    private static final long BUCKET_MILLIS = 5 * 60 * 1000L;
+    private static final int BLOOM_BITS = 1 << 16;
+    private static final int BLOOM_HASHES = 3;
+
+    private final ConcurrentSkipListMap<Long, Bucket> buckets = new ConcurrentSkipListMap<>();
+
+    public boolean isRevoked(String jti, long expiresAt) {
+        if (jti == null) {
+            return false;
+        }
+        Bucket bucket = buckets.get(bucketOf(expiresAt));
+        return bucket != null && bucket.contains(jti);
+    }
+
+    public void revoke(String jti, long expiresAt, long now) {
+        purgeExpired(now);
+        if (jti == null || expiresAt <= now) {
+            return;
+        }
+        buckets.computeIfAbsent(bucketOf(expiresAt), end -> new Bucket()).add(jti);
+    }
+
+    // Buckets are keyed by their end, so every bucket ending before now only holds expired tokens
+    public void purgeExpired(long now) {
+        buckets.headMap(now).clear();
+    }
+
+    public int size() {
+        return buckets.values().stream().mapToInt(bucket -> bucket.exact.size()).sum();
+    }
+
+    private static long bucketOf(long expiresAt) {
+        return (expiresAt / BUCKET_MILLIS + 1) * BUCKET_MILLIS;
+    }
+
+    private static final class Bucket {
+
+        private final AtomicLongArray bloom = new AtomicLongArray(BLOOM_BITS / Long.SIZE);
+        private final Set<String> exact = ConcurrentHashMap.newKeySet();
+
+        void add(String jti) {
+            // Exact set first, so a concurrent reader that sees the Bloom bits also finds the entry
+            exact.add(jti);
+            int h1 = jti.hashCode();
+            int h2 = mix(h1);
+            for (int i = 0; i < BLOOM_HASHES; i++) {
+                int bit = (h1 + i * h2) & (BLOOM_BITS - 1);
+                long mask = 1L << (bit & 63);
+                int index = bit >>> 6;
+                long current;
+                do {
+                    current = bloom.get(index);
+                } while ((current & mask) == 0 && !bloom.compareAndSet(index, current, current | mask));
+            }
+        }
+
+        boolean contains(String jti) {
+            int h1 = jti.hashCode();
+            int h2 = mix(h1);
+            for (int i = 0; i < BLOOM_HASHES; i++) {
+                int bit = (h1 + i * h2) & (BLOOM_BITS - 1);
+                if ((bloom.get(bit >>> 6) & (1L << (bit & 63))) == 0) {
+                    return false;
+                }
+            }
+            return exact.contains(jti);
+        }
+
+        // Murmur3 finalizer, gives a second independent-enough hash from String.hashCode
+        private static int mix(int h) {
+            h ^= h >>> 16;
+            h *= 0x85ebca6b;
+            h ^= h >>> 13;
+            h *= 0xc2b2ae35;
+            h ^= h >>> 16;
+            return h | 1;
+        }
+    }
+}
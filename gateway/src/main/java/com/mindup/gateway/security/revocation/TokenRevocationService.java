@@ -0,0 +1,38 @@
+package com.mindup.gateway.security.revocation;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+
+// Logout revocations checked on every secured request. Tokens without a jti (issued before
+// jtis were added) cannot be revoked individually and simply run until their exp.
+@Service
+public class TokenRevocationService {
+
+    private final RevocationStore revocationStore;
+    private final TokenRevocationList revocationList = new TokenRevocationList();
+
+    public TokenRevocationService(RevocationStore revocationStore, MeterRegistry meterRegistry) {
+        this.revocationStore = revocationStore;
+        revocationStore.subscribe(token ->
+                revocationList.revoke(token.jti(), token.expiresAt(), System.currentTimeMillis()));
+        Gauge.builder("gateway.revoked-tokens", revocationList, TokenRevocationList::size)
+                .description("Revoked tokens that have not expired yet")
+                .register(meterRegistry);
+    }
+
+    public void revoke(Claims claims) {
+        if (claims.getId() == null || claims.getExpiration() == null) {
+            return;
+        }
+        revocationStore.publish(new RevokedToken(claims.getId(), claims.getExpiration().getTime()));
+    }
+
+    public boolean isRevoked(Claims claims) {
+        if (claims.getExpiration() == null) {
+            return false;
+        }
+        return revocationList.isRevoked(claims.getId(), claims.getExpiration().getTime());
+    }
+}
@@ -0,0 +1,45 @@
+package com.mindup.gateway.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtServiceTest {
+
+    private static final String SECRET = Base64.getEncoder().encodeToString(new byte[32]);
+
+    private SimpleMeterRegistry meterRegistry;
+    private JwtService jwtService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        jwtService = new JwtService(SECRET, 60_000, 100, meterRegistry);
+    }
+
+    @Test
+    void verifiedTokensAreParsedOnce() {
+        String token = jwtService.generateToken(Map.of("userId", "user-1"), "user@mindup.com");
+
+        assertThat(jwtService.getVerifiedClaims(token)).hasValueSatisfying(
+                claims -> assertThat(claims.get("userId")).isEqualTo("user-1"));
+        assertThat(jwtService.extractEmail(token)).isEqualTo("user@mindup.com");
+
+        assertThat(meterRegistry.get("gateway.jwt.verification").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void tamperedOrMissingTokensAreRejected() {
+        String token = jwtService.generateToken(Map.of("userId", "user-1"), "user@mindup.com");
+        jwtService.getVerifiedClaims(token);
+
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+        assertThat(jwtService.isTokenValid(tampered)).isFalse();
+        assertThat(jwtService.isTokenValid(null)).isFalse();
+    }
+}